@@ -1,15 +1,27 @@
 package ru.practicum.shareit.booking.controller;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.pagination.SliceResponse;
 
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
+import javax.validation.constraints.NotEmpty;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import javax.validation.constraints.Size;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.List;
 
 @Validated
@@ -18,6 +30,7 @@ import java.util.List;
 @RequestMapping(path = "/bookings")
 public class BookingController {
     private final BookingService bookingService;
+    private final ObjectMapper objectMapper;
     private static final String USERID = "X-Sharer-User-Id";
 
     @PostMapping
@@ -33,6 +46,14 @@ public class BookingController {
         return bookingService.approveBooking(ownerId, bookingId, approved);
     }
 
+    @PatchMapping("/batch")
+    public List<BookingStatusUpdateDto> approveBookings(@RequestHeader(USERID) Long ownerId,
+                                                        @RequestBody @NotEmpty @Size(max = 500)
+                                                        List<@NotNull Long> bookingIds,
+                                                        @RequestParam Boolean approved) {
+        return bookingService.approveBookings(ownerId, bookingIds, approved);
+    }
+
     @GetMapping("/{bookingId}")
     public BookingDto getById(@RequestHeader(USERID) Long userId,
                               @PathVariable Long bookingId) {
@@ -40,22 +61,50 @@ public class BookingController {
     }
 
     @GetMapping
-    public List<BookingDto> getAllByBookerId(@RequestHeader(USERID) Long bookerId,
-                                             @RequestParam(defaultValue = "ALL") String state,
-                                             @RequestParam(required = false, defaultValue = "0")
-                                             @PositiveOrZero Integer from,
-                                             @RequestParam(required = false, defaultValue = "20")
-                                             @PositiveOrZero Integer size) {
-        return bookingService.getAllByBookerId(bookerId, state, from, size);
+    public ResponseEntity<List<BookingDto>> getAllByBookerId(@RequestHeader(USERID) Long bookerId,
+                                                             @RequestParam(defaultValue = "ALL") String state,
+                                                             @RequestParam(required = false, defaultValue = "0")
+                                                             @PositiveOrZero Integer from,
+                                                             @RequestParam(required = false, defaultValue = "20")
+                                                             @PositiveOrZero Integer size) {
+        return SliceResponse.of(bookingService.getAllByBookerId(bookerId, state, from, size));
     }
 
-    @GetMapping("/owner")
-    public List<BookingDto> getAllByOwnerId(@RequestHeader(USERID) Long ownerId,
+    @GetMapping(params = "limit")
+    public BookingPageDto getPageByBookerId(@RequestHeader(USERID) Long bookerId,
                                             @RequestParam(defaultValue = "ALL") String state,
-                                            @RequestParam(required = false, defaultValue = "0")
-                                            @PositiveOrZero Integer from,
-                                            @RequestParam(required = false, defaultValue = "20")
-                                            @PositiveOrZero Integer size) {
-        return bookingService.getAllByOwnerId(ownerId, state, from, size);
+                                            @RequestParam(required = false) String afterId,
+                                            @RequestParam @Positive @Max(100) Integer limit) {
+        return bookingService.getPageByBookerId(bookerId, state, afterId, limit);
+    }
+
+    @GetMapping("/owner")
+    public ResponseEntity<List<BookingDto>> getAllByOwnerId(@RequestHeader(USERID) Long ownerId,
+                                                            @RequestParam(defaultValue = "ALL") String state,
+                                                            @RequestParam(required = false, defaultValue = "0")
+                                                            @PositiveOrZero Integer from,
+                                                            @RequestParam(required = false, defaultValue = "20")
+                                                            @PositiveOrZero Integer size) {
+        return SliceResponse.of(bookingService.getAllByOwnerId(ownerId, state, from, size));
+    }
+
+    @GetMapping(path = "/owner", params = "limit")
+    public BookingPageDto getPageByOwnerId(@RequestHeader(USERID) Long ownerId,
+                                           @RequestParam(defaultValue = "ALL") String state,
+                                           @RequestParam(required = false) String afterId,
+                                           @RequestParam @Positive @Max(100) Integer limit) {
+        return bookingService.getPageByOwnerId(ownerId, state, afterId, limit);
+    }
+
+    @GetMapping(path = "/owner/export", produces = "application/x-ndjson")
+    public StreamingResponseBody exportAllByOwnerId(@RequestHeader(USERID) Long ownerId) {
+        return outputStream -> bookingService.exportAllByOwnerId(ownerId, bookingDto -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(bookingDto));
+                outputStream.write('\n');
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
     }
-}
\ No newline at end of file
+}
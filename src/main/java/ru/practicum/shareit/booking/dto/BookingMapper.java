@@ -2,8 +2,10 @@ package ru.practicum.shareit.booking.dto;
 
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.StatusType;
+import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 
@@ -19,6 +21,27 @@ public class BookingMapper {
                 .build();
     }
 
+    public static BookingDto toBookingDto(BookingView bookingView) {
+        return BookingDto.builder()
+                .id(bookingView.getId())
+                .start(bookingView.getStart())
+                .end(bookingView.getEnd())
+                .item(ItemInputDto.builder()
+                        .id(bookingView.getItemId())
+                        .name(bookingView.getItemName())
+                        .description(bookingView.getItemDescription())
+                        .available(bookingView.getItemAvailable())
+                        .requestId(bookingView.getItemRequestId())
+                        .build())
+                .booker(UserDto.builder()
+                        .id(bookingView.getBookerId())
+                        .name(bookingView.getBookerName())
+                        .email(bookingView.getBookerEmail())
+                        .build())
+                .status(bookingView.getStatus())
+                .build();
+    }
+
     public static Booking fromInputBookingDto(InputBookingDto inputBookingDto, Item item, User booker) {
         return Booking.builder()
                 .id(inputBookingDto.getId())
@@ -30,12 +53,10 @@ public class BookingMapper {
                 .build();
     }
 
-    public static BookingDtoForItem toBookingDtoForItem(Booking booking) {
-        if (booking != null) {
-            return BookingDtoForItem.builder()
-                    .id(booking.getId())
-                    .bookerId(booking.getBooker().getId())
-                    .build();
-        } else return null;
+    public static BookingDtoForItem toBookingDtoForItem(BookingView booking) {
+        return BookingDtoForItem.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .build();
     }
 }
\ No newline at end of file
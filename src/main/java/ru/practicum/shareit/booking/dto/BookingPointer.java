@@ -0,0 +1,9 @@
+package ru.practicum.shareit.booking.dto;
+
+import lombok.Value;
+
+@Value
+public class BookingPointer {
+    Long itemId;
+    Long bookingId;
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking.model;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import ru.practicum.shareit.id.SnowflakeIdGenerator;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -13,9 +15,21 @@ import java.time.LocalDateTime;
 @AllArgsConstructor
 @Entity
 @Table(name = "bookings")
+@NamedEntityGraph(name = Booking.DETAILS_GRAPH,
+        attributeNodes = {
+                @NamedAttributeNode(value = "item", subgraph = "item"),
+                @NamedAttributeNode("booker")},
+        subgraphs = {
+                @NamedSubgraph(name = "item", attributeNodes = {
+                        @NamedAttributeNode("owner"),
+                        @NamedAttributeNode(value = "itemRequest", subgraph = "itemRequest")}),
+                @NamedSubgraph(name = "itemRequest", attributeNodes = @NamedAttributeNode("requestor"))})
 public class Booking {
+    public static final String DETAILS_GRAPH = "Booking.details";
+
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+    @GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = SnowflakeIdGenerator.STRATEGY)
     @Column(name = "id", nullable = false)
     private Long id;
 
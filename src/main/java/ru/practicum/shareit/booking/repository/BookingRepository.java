@@ -1,41 +1,248 @@
 package ru.practicum.shareit.booking.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import ru.practicum.shareit.booking.dto.BookingPointer;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusType;
 
+import javax.persistence.LockModeType;
+import javax.persistence.QueryHint;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
+
+import static org.hibernate.jpa.QueryHints.HINT_FETCH_SIZE;
+import static org.hibernate.jpa.QueryHints.HINT_READONLY;
 
 public interface BookingRepository extends JpaRepository<Booking, Long> {
-    @Query("select b from Booking b " +
-            "where b.booker.id = ?1 " +
+    String BOOKING_VIEW_QUERY = "select new ru.practicum.shareit.booking.dto.BookingView(" +
+            "b.id, b.start, b.end, b.status, " +
+            "i.id, i.name, i.description, i.available, r.id, " +
+            "u.id, u.name, u.email) " +
+            "from Booking b " +
+            "join b.item i " +
+            "left join i.itemRequest r " +
+            "join b.booker u ";
+
+    @Override
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    Optional<Booking> findById(Long id);
+
+    boolean existsByBookerIdAndItemIdAndStatusAndEndBefore(Long bookerId, Long itemId, StatusType status,
+                                                           LocalDateTime end);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
             "order by b.id desc")
-    List<Booking> findAllByBookerId(Long bookerId);
+    Slice<BookingView> findAllByBookerId(Long bookerId, Pageable page);
 
-    @Query("select b from Booking b " +
-            "where b.booker.id = ?1 " +
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.start < ?2 " +
+            "and b.end > ?2 " +
             "order by b.id desc")
-    Page<Booking> findAllByBookerId(Long bookerId, Pageable page);
+    Slice<BookingView> findCurrentByBookerId(Long bookerId, LocalDateTime now, Pageable page);
 
-    @Query("select b from Booking b " +
-            "where b.item.owner.id = ?1 " +
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.end < ?2 " +
             "order by b.id desc")
-    Page<Booking> getAllByOwnerId(Long ownerId, Pageable page);
+    Slice<BookingView> findPastByBookerId(Long bookerId, LocalDateTime now, Pageable page);
 
-    @Query("select b from Booking b " +
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.start > ?2 " +
+            "order by b.id desc")
+    Slice<BookingView> findFutureByBookerId(Long bookerId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.status = ?2 " +
+            "order by b.id desc")
+    Slice<BookingView> findAllByBookerIdAndStatus(Long bookerId, StatusType status, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "order by b.id desc")
+    Slice<BookingView> getAllByOwnerId(Long ownerId, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.start < ?2 " +
+            "and b.end > ?2 " +
+            "order by b.id desc")
+    Slice<BookingView> getCurrentByOwnerId(Long ownerId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.end < ?2 " +
+            "order by b.id desc")
+    Slice<BookingView> getPastByOwnerId(Long ownerId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.start > ?2 " +
+            "order by b.id desc")
+    Slice<BookingView> getFutureByOwnerId(Long ownerId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.status = ?2 " +
+            "order by b.id desc")
+    Slice<BookingView> getAllByOwnerIdAndStatus(Long ownerId, StatusType status, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.id < ?2 " +
+            "order by b.id desc")
+    List<BookingView> findAllByBookerIdBefore(Long bookerId, Long beforeId, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.start < ?3 " +
+            "and b.end > ?3 " +
+            "order by b.id desc")
+    List<BookingView> findCurrentByBookerIdBefore(Long bookerId, Long beforeId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.end < ?3 " +
+            "order by b.id desc")
+    List<BookingView> findPastByBookerIdBefore(Long bookerId, Long beforeId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.start > ?3 " +
+            "order by b.id desc")
+    List<BookingView> findFutureByBookerIdBefore(Long bookerId, Long beforeId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where u.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.status = ?3 " +
+            "order by b.id desc")
+    List<BookingView> findAllByBookerIdAndStatusBefore(Long bookerId, Long beforeId, StatusType status, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.id < ?2 " +
+            "order by b.id desc")
+    List<BookingView> getAllByOwnerIdBefore(Long ownerId, Long beforeId, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.start < ?3 " +
+            "and b.end > ?3 " +
+            "order by b.id desc")
+    List<BookingView> getCurrentByOwnerIdBefore(Long ownerId, Long beforeId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.end < ?3 " +
+            "order by b.id desc")
+    List<BookingView> getPastByOwnerIdBefore(Long ownerId, Long beforeId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.start > ?3 " +
+            "order by b.id desc")
+    List<BookingView> getFutureByOwnerIdBefore(Long ownerId, Long beforeId, LocalDateTime now, Pageable page);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where i.owner.id = ?1 " +
+            "and b.id < ?2 " +
+            "and b.status = ?3 " +
+            "order by b.id desc")
+    List<BookingView> getAllByOwnerIdAndStatusBefore(Long ownerId, Long beforeId, StatusType status, Pageable page);
+
+    @Query("select count(b) > 0 from Booking b " +
             "where b.item.id = ?1 " +
-            "and b.item.owner.id = ?2 " +
-            "and b.end < current_timestamp " +
-            "order by b.end desc")
-    Optional<Booking> findLastBooking(Long itemId, Long ownerId);
+            "and b.status in ?2 " +
+            "and b.start < ?4 " +
+            "and b.end > ?3")
+    boolean existsOverlapping(Long itemId, Collection<StatusType> statuses, LocalDateTime start, LocalDateTime end);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
     @Query("select b from Booking b " +
-            "where b.item.id = ?1 " +
-            "and b.item.owner.id = ?2 " +
-            "and b.start > current_timestamp " +
-            "order by b.start")
-    Optional<Booking> findNextBooking(Long itemId, Long ownerId);
-}
\ No newline at end of file
+            "join fetch b.item i " +
+            "join fetch i.owner " +
+            "where b.id in ?1")
+    List<Booking> findAllByIdInForUpdate(Collection<Long> bookingIds);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = ?2 " +
+            "where b.id in ?1")
+    int updateStatus(Collection<Long> bookingIds, StatusType status);
+
+    @Modifying(clearAutomatically = true)
+    @Query("update Booking b " +
+            "set b.status = ?3 " +
+            "where b.id = ?1 " +
+            "and b.status = ru.practicum.shareit.booking.model.StatusType.WAITING " +
+            "and b.item in (select i from Item i where i.owner.id = ?2)")
+    int updateStatusIfWaiting(Long bookingId, Long ownerId, StatusType status);
+
+    @EntityGraph(Booking.DETAILS_GRAPH)
+    @Query("select b from Booking b " +
+            "where b.status in ?1 " +
+            "and b.end > ?2")
+    List<Booking> findAllByStatusInAndEndAfter(Collection<StatusType> statuses, LocalDateTime end);
+
+    @Query("select b from Booking b " +
+            "where b.booker.id = ?1 " +
+            "and b.status in ?2 " +
+            "and b.end > ?3")
+    List<Booking> findAllByBookerIdAndStatusInAndEndAfter(Long bookerId, Collection<StatusType> statuses,
+                                                          LocalDateTime end);
+
+    @QueryHints({
+            @QueryHint(name = HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HINT_READONLY, value = "true")})
+    @Query("select b from Booking b " +
+            "join fetch b.item i " +
+            "join fetch i.owner " +
+            "join fetch b.booker " +
+            "where i.owner.id = ?1 " +
+            "order by b.id")
+    Stream<Booking> streamAllByOwnerId(Long ownerId);
+
+    @Query(BOOKING_VIEW_QUERY +
+            "where b.id in ?1")
+    List<BookingView> findAllViewsByIdIn(Collection<Long> bookingIds);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingPointer(b.item.id, b.id) from Booking b " +
+            "where b.item.id in ?1 " +
+            "and b.end = (select max(lb.end) from Booking lb " +
+            "where lb.item = b.item " +
+            "and lb.end < ?2)")
+    List<BookingPointer> findLastBookings(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("select new ru.practicum.shareit.booking.dto.BookingPointer(b.item.id, b.id) from Booking b " +
+            "where b.item.id in ?1 " +
+            "and b.start = (select min(nb.start) from Booking nb " +
+            "where nb.item = b.item " +
+            "and nb.start > ?2)")
+    List<BookingPointer> findNextBookings(Collection<Long> itemIds, LocalDateTime now);
+
+    @Query("select distinct b.item.id from Booking b " +
+            "where (b.start > ?1 and b.start <= ?2) " +
+            "or (b.end >= ?1 and b.end < ?2)")
+    List<Long> findItemIdsWithBoundaryBetween(LocalDateTime from, LocalDateTime to);
+}
@@ -0,0 +1,227 @@
+package ru.practicum.shareit.booking.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusType;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import javax.annotation.PostConstruct;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+/**
+ * Per-item intervals of WAITING and APPROVED bookings ordered by start, used to reject overlapping bookings.
+ * The index lives in this JVM and misses bookings written by other instances, so it only rejects early:
+ * a booking it lets through is checked again against the database. That check is authoritative as long as
+ * the caller holds a write lock on the item row, which serializes bookings of one item across instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class BookingIntervalIndex {
+    private static final List<StatusType> BLOCKING_STATUSES = List.of(StatusType.WAITING, StatusType.APPROVED);
+
+    private final BookingRepository bookingRepository;
+    private final Map<Long, ItemIntervals> intervals = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void rebuild() {
+        intervals.clear();
+        List<Booking> bookings = bookingRepository.findAllByStatusInAndEndAfter(BLOCKING_STATUSES, LocalDateTime.now());
+        bookings.forEach(this::put);
+        log.info("Индекс интервалов бронирований построен, бронирований: {}", bookings.size());
+    }
+
+    public Booking reserve(Booking booking, UnaryOperator<Booking> writer) {
+        Long itemId = booking.getItem().getId();
+        return withIntervals(itemId, itemIntervals -> {
+            itemIntervals.removeFinished(LocalDateTime.now());
+            if (itemIntervals.overlaps(booking.getStart(), booking.getEnd())
+                    || bookingRepository.existsOverlapping(itemId, BLOCKING_STATUSES, booking.getStart(), booking.getEnd())) {
+                log.warn("Предмет c id={} уже забронирован на указанный период.", itemId);
+                throw new ValidationException("Предмет c id=" + itemId + " уже забронирован на указанный период.");
+            }
+            Booking saved = writer.apply(booking);
+            itemIntervals.add(new Slot(saved.getStart(), saved.getId()), saved.getEnd());
+            TransactionCallbacks.afterRollback(() -> doRemove(saved));
+            return saved;
+        });
+    }
+
+    public void put(Booking booking) {
+        withIntervals(booking.getItem().getId(), itemIntervals -> {
+            itemIntervals.add(new Slot(booking.getStart(), booking.getId()), booking.getEnd());
+            return booking;
+        });
+    }
+
+    public void remove(Booking booking) {
+        TransactionCallbacks.afterCommit(() -> doRemove(booking));
+    }
+
+    public void removeItem(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> intervals.remove(itemId));
+    }
+
+    /**
+     * Drops the slots that deleting a user cascades to: every booking of the given items and the user's own bookings.
+     */
+    public void removeUser(Long userId, Collection<Long> itemIds) {
+        List<Booking> bookings = bookingRepository.findAllByBookerIdAndStatusInAndEndAfter(userId, BLOCKING_STATUSES,
+                LocalDateTime.now());
+        TransactionCallbacks.afterCommit(() -> {
+            itemIds.forEach(intervals::remove);
+            bookings.forEach(this::doRemove);
+        });
+    }
+
+    /**
+     * Drops finished bookings of every item, and the items left without bookings, so that items which are not
+     * booked again do not stay in the index.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-intervals.sweep-ms:60000}")
+    public void removeFinished() {
+        LocalDateTime now = LocalDateTime.now();
+        intervals.keySet().forEach(itemId -> withIntervals(itemId, itemIntervals -> {
+            itemIntervals.removeFinished(now);
+            return itemIntervals;
+        }));
+    }
+
+    public int getItemCount() {
+        return intervals.size();
+    }
+
+    private void doRemove(Booking booking) {
+        withIntervals(booking.getItem().getId(), itemIntervals -> {
+            itemIntervals.remove(new Slot(booking.getStart(), booking.getId()));
+            return itemIntervals;
+        });
+    }
+
+    /**
+     * Runs the action under the lock of the item's intervals and drops them from the map once they are empty.
+     * Emptied intervals are only removed under their lock, so an action that finds its intervals no longer
+     * mapped retries with fresh ones instead of writing into a detached instance.
+     */
+    private <T> T withIntervals(Long itemId, Function<ItemIntervals, T> action) {
+        while (true) {
+            ItemIntervals itemIntervals = intervals.computeIfAbsent(itemId, id -> new ItemIntervals());
+            synchronized (itemIntervals) {
+                if (intervals.get(itemId) != itemIntervals) {
+                    continue;
+                }
+                try {
+                    return action.apply(itemIntervals);
+                } finally {
+                    if (itemIntervals.isEmpty()) {
+                        intervals.remove(itemId, itemIntervals);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * The bookings of one item, and the disjoint ranges they cover together. Indexed bookings may overlap each
+     * other (waiting bookings, bookings made before the index existed), so they are merged into covered ranges
+     * and an overlap check looks at one range only. Removing a booking rebuilds just the range it belonged to.
+     */
+    private static class ItemIntervals {
+        private final NavigableMap<Slot, LocalDateTime> slots = new TreeMap<>();
+        private final NavigableMap<LocalDateTime, LocalDateTime> covered = new TreeMap<>();
+
+        boolean isEmpty() {
+            return slots.isEmpty();
+        }
+
+        boolean overlaps(LocalDateTime start, LocalDateTime end) {
+            Map.Entry<LocalDateTime, LocalDateTime> range = covered.lowerEntry(end);
+            return range != null && range.getValue().isAfter(start);
+        }
+
+        void add(Slot slot, LocalDateTime end) {
+            slots.put(slot, end);
+            cover(slot.getStart(), end);
+        }
+
+        void remove(Slot slot) {
+            if (slots.remove(slot) == null) {
+                return;
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> range = covered.floorEntry(slot.getStart());
+            if (range == null) {
+                return;
+            }
+            covered.remove(range.getKey());
+            slots.subMap(new Slot(range.getKey(), Long.MIN_VALUE), new Slot(range.getValue(), Long.MIN_VALUE))
+                    .forEach((remaining, remainingEnd) -> cover(remaining.getStart(), remainingEnd));
+        }
+
+        void removeFinished(LocalDateTime now) {
+            Iterator<LocalDateTime> slotEnds = slots.headMap(new Slot(now, Long.MIN_VALUE)).values().iterator();
+            while (slotEnds.hasNext()) {
+                if (slotEnds.next().isBefore(now)) {
+                    slotEnds.remove();
+                }
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> first;
+            while ((first = covered.firstEntry()) != null && first.getValue().isBefore(now)) {
+                covered.remove(first.getKey());
+            }
+        }
+
+        private void cover(LocalDateTime start, LocalDateTime end) {
+            if (!end.isAfter(start)) {
+                return;
+            }
+            LocalDateTime from = start;
+            LocalDateTime to = end;
+            Map.Entry<LocalDateTime, LocalDateTime> previous = covered.floorEntry(start);
+            if (previous != null && previous.getValue().isAfter(start)) {
+                from = previous.getKey();
+                to = later(to, previous.getValue());
+                covered.remove(previous.getKey());
+            }
+            Map.Entry<LocalDateTime, LocalDateTime> following;
+            while ((following = covered.ceilingEntry(from)) != null && following.getKey().isBefore(to)) {
+                to = later(to, following.getValue());
+                covered.remove(following.getKey());
+            }
+            covered.put(from, to);
+        }
+
+        private static LocalDateTime later(LocalDateTime first, LocalDateTime second) {
+            return first.isAfter(second) ? first : second;
+        }
+    }
+
+    @Value
+    private static class Slot implements Comparable<Slot> {
+        private static final Comparator<Slot> ORDER = Comparator.comparing(Slot::getStart)
+                .thenComparing(Slot::getBookingId);
+
+        LocalDateTime start;
+        Long bookingId;
+
+        @Override
+        public int compareTo(Slot other) {
+            return ORDER.compare(this, other);
+        }
+    }
+}
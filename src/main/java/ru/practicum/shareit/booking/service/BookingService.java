@@ -1,18 +1,30 @@
 package ru.practicum.shareit.booking.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 
 import java.util.List;
+import java.util.function.Consumer;
 
 public interface BookingService {
     BookingDto addBooking(Long bookerId, InputBookingDto inputBookingDto);
 
     BookingDto approveBooking(Long ownerId, Long bookingId, Boolean isApprove);
 
+    List<BookingStatusUpdateDto> approveBookings(Long ownerId, List<Long> bookingIds, Boolean isApprove);
+
     BookingDto getById(Long userId, Long bookingId);
 
-    List<BookingDto> getAllByBookerId(Long bookerId, String state, Integer from, Integer size);
+    Slice<BookingDto> getAllByBookerId(Long bookerId, String state, Integer from, Integer size);
+
+    Slice<BookingDto> getAllByOwnerId(Long ownerId, String state, Integer from, Integer size);
+
+    void exportAllByOwnerId(Long ownerId, Consumer<BookingDto> consumer);
+
+    BookingPageDto getPageByBookerId(Long bookerId, String state, String afterId, Integer limit);
 
-    List<BookingDto> getAllByOwnerId(Long ownerId, String state, Integer from, Integer size);
+    BookingPageDto getPageByOwnerId(Long ownerId, String state, String afterId, Integer limit);
 }
\ No newline at end of file
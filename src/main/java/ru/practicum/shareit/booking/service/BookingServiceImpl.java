@@ -2,11 +2,15 @@ package ru.practicum.shareit.booking.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.State;
@@ -16,28 +20,48 @@ import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.pagination.IdCursor;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class BookingServiceImpl implements BookingService {
+    private static final int EXPORT_CLEAR_INTERVAL = 500;
+
     private final BookingRepository bookingRepository;
-    private final UserRepository userRepository;
+    private final UserResolver userResolver;
     private final ItemRepository itemRepository;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemDetailCache itemDetailCache;
+    private final ItemBookingPointers itemBookingPointers;
+    private final EntityManager entityManager;
 
     @Override
+    @Transactional
     public BookingDto addBooking(Long bookerId, InputBookingDto inputBookingDto) {
-        User booker = userRepository.findById(bookerId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + bookerId + " не найден."));
-        Item item = itemRepository.findById(inputBookingDto.getItemId())
+        User booker = userResolver.getUser(bookerId);
+        Item item = itemRepository.findByIdForUpdate(inputBookingDto.getItemId())
                 .orElseThrow(() -> new ObjectNotFoundException("Предмет c id=" + inputBookingDto.getItemId() + " не найден."));
         if (booker.getId().equals(item.getOwner().getId())) {
             log.warn("Пользователь c id={} является владельцем предмета.", bookerId);
@@ -45,7 +69,10 @@ public class BookingServiceImpl implements BookingService {
         }
         Booking booking = BookingMapper.fromInputBookingDto(inputBookingDto, item, booker);
         if (booking.getItem().getAvailable() && booking.getStart().isBefore(booking.getEnd())) {
-            BookingDto bookingDto = BookingMapper.toBookingDto(bookingRepository.save(booking));
+            Booking saved = bookingIntervalIndex.reserve(booking, bookingRepository::save);
+            itemBookingPointers.bookingAdded(saved);
+            itemDetailCache.evict(item.getId());
+            BookingDto bookingDto = BookingMapper.toBookingDto(saved);
             log.info("Добавлено бронирование с id={}", bookingDto.getId());
             return bookingDto;
         } else {
@@ -55,21 +82,61 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
+    @Transactional
     public BookingDto approveBooking(Long ownerId, Long bookingId, Boolean isApprove) {
+        StatusType status = isApprove ? StatusType.APPROVED : StatusType.REJECTED;
+        if (bookingRepository.updateStatusIfWaiting(bookingId, ownerId, status) == 0) {
+            Booking booking = bookingRepository.findById(bookingId)
+                    .orElseThrow(() -> new ObjectNotFoundException("Бронирование c id=" + bookingId + "не найдено."));
+            if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
+                throw new ObjectNotFoundException("Пользователь c id=" + ownerId + " не является хозяином предмета.");
+            }
+            log.warn("Статус бронирования id={} отличается от WAITING", booking.getId());
+            throw new BadRequestException("Бронирование не нуждается в изменении статуса.");
+        }
         Booking booking = bookingRepository.findById(bookingId)
                 .orElseThrow(() -> new ObjectNotFoundException("Бронирование c id=" + bookingId + "не найдено."));
-        if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
-            throw new ObjectNotFoundException("Пользователь c id=" + ownerId + " не является хозяином предмета.");
+        if (status == StatusType.REJECTED) {
+            bookingIntervalIndex.remove(booking);
         }
-        if (booking.getStatus().equals(StatusType.WAITING)) {
-            booking.setStatus(isApprove ? StatusType.APPROVED : StatusType.REJECTED);
-        } else {
-            log.warn("Статус бронирования id={} отличается от WAITING", booking.getId());
-            throw new BadRequestException("Бронирование не нуждается в изменении статуса.");
+        itemDetailCache.evict(booking.getItem().getId());
+        log.info("Изменено бронирование с id={}", booking.getId());
+        return BookingMapper.toBookingDto(booking);
+    }
+
+    @Override
+    @Transactional
+    public List<BookingStatusUpdateDto> approveBookings(Long ownerId, List<Long> bookingIds, Boolean isApprove) {
+        StatusType status = isApprove ? StatusType.APPROVED : StatusType.REJECTED;
+        Map<Long, Booking> bookings = bookingRepository.findAllByIdInForUpdate(new HashSet<>(bookingIds)).stream()
+                .collect(Collectors.toMap(Booking::getId, Function.identity()));
+        List<BookingStatusUpdateDto> results = new ArrayList<>();
+        Set<Long> updatedIds = new LinkedHashSet<>();
+        for (Long bookingId : bookingIds) {
+            BookingStatusUpdateDto.BookingStatusUpdateDtoBuilder result = BookingStatusUpdateDto.builder()
+                    .bookingId(bookingId);
+            Booking booking = bookings.get(bookingId);
+            if (booking == null) {
+                result.error("Бронирование c id=" + bookingId + "не найдено.");
+            } else if (!Objects.equals(booking.getItem().getOwner().getId(), ownerId)) {
+                result.error("Пользователь c id=" + ownerId + " не является хозяином предмета.");
+            } else if (updatedIds.contains(bookingId) || booking.getStatus() == StatusType.WAITING) {
+                updatedIds.add(bookingId);
+                result.status(status);
+            } else {
+                result.status(booking.getStatus()).error("Бронирование не нуждается в изменении статуса.");
+            }
+            results.add(result.build());
         }
-        BookingDto bookingDto = BookingMapper.toBookingDto(bookingRepository.save(booking));
-        log.info("Изменено бронирование с id={}", bookingDto.getId());
-        return bookingDto;
+        if (!updatedIds.isEmpty()) {
+            bookingRepository.updateStatus(updatedIds, status);
+            if (status == StatusType.REJECTED) {
+                updatedIds.forEach(id -> bookingIntervalIndex.remove(bookings.get(id)));
+            }
+            updatedIds.forEach(id -> itemDetailCache.evict(bookings.get(id).getItem().getId()));
+        }
+        log.info("Изменен статус {} бронирований на {}", updatedIds.size(), status);
+        return results;
     }
 
     @Override
@@ -85,29 +152,114 @@ public class BookingServiceImpl implements BookingService {
     }
 
     @Override
-    public List<BookingDto> getAllByBookerId(Long bookerId, String stateString, Integer from, Integer size) {
-        Page<Booking> result = bookingRepository.findAllByBookerId(bookerId, getPageRequest(from, size));
-        if (result.isEmpty()) {
+    public Slice<BookingDto> getAllByBookerId(Long bookerId, String stateString, Integer from, Integer size) {
+        State state = toState(stateString);
+        Slice<BookingView> result = findAllByBookerIdAndState(bookerId, state, getPageRequest(from, size));
+        if (result.isEmpty() && state == State.ALL) {
             log.info("Пользователь id={} не имеет бронирований", bookerId);
             throw new ObjectNotFoundException("Бронирований не найдено.");
         } else {
-            return filterByState(result.toList(), toState(stateString)).stream()
-                    .map(BookingMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return result.map(BookingMapper::toBookingDto);
         }
     }
 
     @Override
-    public List<BookingDto> getAllByOwnerId(Long ownerId, String stateString, Integer from, Integer size) {
-        Page<Booking> result = bookingRepository.getAllByOwnerId(ownerId, getPageRequest(from, size));
-        if (result.isEmpty()) {
+    public Slice<BookingDto> getAllByOwnerId(Long ownerId, String stateString, Integer from, Integer size) {
+        State state = toState(stateString);
+        Slice<BookingView> result = findAllByOwnerIdAndState(ownerId, state, getPageRequest(from, size));
+        if (result.isEmpty() && state == State.ALL) {
             log.info("Пользователь id={} не имеет бронирований", ownerId);
             throw new ObjectNotFoundException("Бронирований не найдено.");
         } else {
-            return filterByState(result.toList(), toState(stateString)).stream()
-                    .map(BookingMapper::toBookingDto)
-                    .collect(Collectors.toList());
+            return result.map(BookingMapper::toBookingDto);
+        }
+    }
+
+    @Override
+    public void exportAllByOwnerId(Long ownerId, Consumer<BookingDto> consumer) {
+        int count = 0;
+        try (Stream<Booking> bookings = bookingRepository.streamAllByOwnerId(ownerId)) {
+            Iterator<Booking> iterator = bookings.iterator();
+            while (iterator.hasNext()) {
+                consumer.accept(BookingMapper.toBookingDto(iterator.next()));
+                if (++count % EXPORT_CLEAR_INTERVAL == 0) {
+                    entityManager.clear();
+                }
+            }
+        }
+        log.info("Выгружено {} бронирований владельца id={}", count, ownerId);
+    }
+
+    @Override
+    public BookingPageDto getPageByBookerId(Long bookerId, String stateString, String afterId, Integer limit) {
+        State state = toState(stateString);
+        Long beforeId = IdCursor.decode(afterId);
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
+        List<BookingView> result;
+        switch (state) {
+            case WAITING:
+                result = bookingRepository.findAllByBookerIdAndStatusBefore(bookerId, beforeId,
+                        StatusType.WAITING, pageRequest);
+                break;
+            case REJECTED:
+                result = bookingRepository.findAllByBookerIdAndStatusBefore(bookerId, beforeId,
+                        StatusType.REJECTED, pageRequest);
+                break;
+            case PAST:
+                result = bookingRepository.findPastByBookerIdBefore(bookerId, beforeId, LocalDateTime.now(), pageRequest);
+                break;
+            case FUTURE:
+                result = bookingRepository.findFutureByBookerIdBefore(bookerId, beforeId, LocalDateTime.now(), pageRequest);
+                break;
+            case CURRENT:
+                result = bookingRepository.findCurrentByBookerIdBefore(bookerId, beforeId, LocalDateTime.now(), pageRequest);
+                break;
+            default:
+                result = bookingRepository.findAllByBookerIdBefore(bookerId, beforeId, pageRequest);
         }
+        return toBookingPageDto(result, limit);
+    }
+
+    @Override
+    public BookingPageDto getPageByOwnerId(Long ownerId, String stateString, String afterId, Integer limit) {
+        State state = toState(stateString);
+        Long beforeId = IdCursor.decode(afterId);
+        PageRequest pageRequest = PageRequest.of(0, limit + 1);
+        List<BookingView> result;
+        switch (state) {
+            case WAITING:
+                result = bookingRepository.getAllByOwnerIdAndStatusBefore(ownerId, beforeId,
+                        StatusType.WAITING, pageRequest);
+                break;
+            case REJECTED:
+                result = bookingRepository.getAllByOwnerIdAndStatusBefore(ownerId, beforeId,
+                        StatusType.REJECTED, pageRequest);
+                break;
+            case PAST:
+                result = bookingRepository.getPastByOwnerIdBefore(ownerId, beforeId, LocalDateTime.now(), pageRequest);
+                break;
+            case FUTURE:
+                result = bookingRepository.getFutureByOwnerIdBefore(ownerId, beforeId, LocalDateTime.now(), pageRequest);
+                break;
+            case CURRENT:
+                result = bookingRepository.getCurrentByOwnerIdBefore(ownerId, beforeId, LocalDateTime.now(), pageRequest);
+                break;
+            default:
+                result = bookingRepository.getAllByOwnerIdBefore(ownerId, beforeId, pageRequest);
+        }
+        return toBookingPageDto(result, limit);
+    }
+
+    private BookingPageDto toBookingPageDto(List<BookingView> bookings, Integer limit) {
+        boolean hasNext = bookings.size() > limit;
+        List<BookingDto> page = bookings.stream()
+                .limit(limit)
+                .map(BookingMapper::toBookingDto)
+                .collect(Collectors.toList());
+        return BookingPageDto.builder()
+                .bookings(page)
+                .nextCursor(hasNext ? IdCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .build();
     }
 
     private State toState(String stateString) {
@@ -118,31 +270,39 @@ public class BookingServiceImpl implements BookingService {
         }
     }
 
-    private List<Booking> filterByState(List<Booking> bookings, State state) {
+    private Slice<BookingView> findAllByBookerIdAndState(Long bookerId, State state, PageRequest pageRequest) {
+        switch (state) {
+            case ALL:
+                return bookingRepository.findAllByBookerId(bookerId, pageRequest);
+            case WAITING:
+                return bookingRepository.findAllByBookerIdAndStatus(bookerId, StatusType.WAITING, pageRequest);
+            case REJECTED:
+                return bookingRepository.findAllByBookerIdAndStatus(bookerId, StatusType.REJECTED, pageRequest);
+            case PAST:
+                return bookingRepository.findPastByBookerId(bookerId, LocalDateTime.now(), pageRequest);
+            case FUTURE:
+                return bookingRepository.findFutureByBookerId(bookerId, LocalDateTime.now(), pageRequest);
+            case CURRENT:
+                return bookingRepository.findCurrentByBookerId(bookerId, LocalDateTime.now(), pageRequest);
+            default:
+                throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
+        }
+    }
+
+    private Slice<BookingView> findAllByOwnerIdAndState(Long ownerId, State state, PageRequest pageRequest) {
         switch (state) {
             case ALL:
-                return bookings;
+                return bookingRepository.getAllByOwnerId(ownerId, pageRequest);
             case WAITING:
-                return bookings.stream()
-                        .filter(booking -> booking.getStatus().equals(StatusType.WAITING))
-                        .collect(Collectors.toList());
+                return bookingRepository.getAllByOwnerIdAndStatus(ownerId, StatusType.WAITING, pageRequest);
             case REJECTED:
-                return bookings.stream()
-                        .filter(booking -> booking.getStatus().equals(StatusType.REJECTED))
-                        .collect(Collectors.toList());
+                return bookingRepository.getAllByOwnerIdAndStatus(ownerId, StatusType.REJECTED, pageRequest);
             case PAST:
-                return bookings.stream()
-                        .filter(booking -> booking.getEnd().isBefore(LocalDateTime.now()))
-                        .collect(Collectors.toList());
+                return bookingRepository.getPastByOwnerId(ownerId, LocalDateTime.now(), pageRequest);
             case FUTURE:
-                return bookings.stream()
-                        .filter(booking -> booking.getStart().isAfter(LocalDateTime.now()))
-                        .collect(Collectors.toList());
+                return bookingRepository.getFutureByOwnerId(ownerId, LocalDateTime.now(), pageRequest);
             case CURRENT:
-                return bookings.stream()
-                        .filter(booking -> booking.getStart().isBefore(LocalDateTime.now()) &&
-                                booking.getEnd().isAfter(LocalDateTime.now()))
-                        .collect(Collectors.toList());
+                return bookingRepository.getCurrentByOwnerId(ownerId, LocalDateTime.now(), pageRequest);
             default:
                 throw new BadRequestException("Unknown state: UNSUPPORTED_STATUS");
         }
@@ -0,0 +1,73 @@
+package ru.practicum.shareit.coalescing;
+
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent calls with an equal key into one in-flight computation whose result or exception
+ * every caller receives. Nothing is kept once the computation finishes, so later calls compute again.
+ */
+@Component
+public class SingleFlight {
+    private final ConcurrentMap<Object, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final LongAdder calls = new LongAdder();
+    private final LongAdder shared = new LongAdder();
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(Object key, Supplier<T> computation) {
+        calls.increment();
+        CompletableFuture<Object> call = new CompletableFuture<>();
+        CompletableFuture<Object> running = inFlight.putIfAbsent(key, call);
+        if (running != null) {
+            shared.increment();
+            return (T) await(running);
+        }
+        try {
+            T result = computation.get();
+            call.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    public long getCalls() {
+        return calls.sum();
+    }
+
+    public long getShared() {
+        return shared.sum();
+    }
+
+    public double getDedupeRatio() {
+        long total = calls.sum();
+        return total == 0 ? 0 : (double) shared.sum() / total;
+    }
+
+    public int getInFlight() {
+        return inFlight.size();
+    }
+
+    private static Object await(CompletableFuture<Object> call) {
+        try {
+            return call.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            if (e.getCause() instanceof Error) {
+                throw (Error) e.getCause();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,76 @@
+package ru.practicum.shareit.id;
+
+import java.time.Instant;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.LongSupplier;
+
+/**
+ * Time-ordered 53-bit ids: seconds since 2022-01-01 (32 bits), node id (5 bits) and a per-second sequence (16 bits).
+ * The layout keeps ids within the safe integer range of JSON clients. When a second's sequence is exhausted
+ * the allocator waits for the clock to reach the next second, so it never issues ids from seconds that have not
+ * come yet. The second it is created in counts as exhausted, so a restarted node does not repeat the ids its
+ * previous run issued in that second. Nothing is persisted: if the clock is set back across a restart, ids of
+ * the previous run can repeat.
+ */
+public class SnowflakeIdAllocator {
+    public static final int NODE_BITS = 5;
+    public static final int SEQUENCE_BITS = 16;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+    private static final long EPOCH_SECOND = Instant.parse("2022-01-01T00:00:00Z").getEpochSecond();
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private final long nodeId;
+    private final LongSupplier clock;
+    private final Runnable pause;
+    private long lastSecond;
+    private long sequence;
+
+    public SnowflakeIdAllocator(int nodeId) {
+        this(nodeId, () -> Instant.now().getEpochSecond(),
+                () -> LockSupport.parkNanos(TimeUnit.MILLISECONDS.toNanos(1)));
+    }
+
+    /**
+     * The pause runs between polls of the clock while waiting for the next second.
+     */
+    SnowflakeIdAllocator(int nodeId, LongSupplier clock, Runnable pause) {
+        if (nodeId < 0 || nodeId > MAX_NODE_ID) {
+            throw new IllegalArgumentException("Идентификатор узла должен быть от 0 до " + MAX_NODE_ID + ": " + nodeId);
+        }
+        this.nodeId = nodeId;
+        this.clock = clock;
+        this.pause = pause;
+        this.lastSecond = currentSecond();
+        this.sequence = SEQUENCE_MASK;
+    }
+
+    public synchronized long nextId() {
+        long second = currentSecond();
+        if (second <= lastSecond) {
+            second = lastSecond;
+            sequence = (sequence + 1) & SEQUENCE_MASK;
+            if (sequence == 0) {
+                second = awaitSecondAfter(lastSecond);
+            }
+        } else {
+            sequence = 0;
+        }
+        lastSecond = second;
+        return (second << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+    }
+
+    private long awaitSecondAfter(long second) {
+        long current = currentSecond();
+        while (current <= second) {
+            pause.run();
+            current = currentSecond();
+        }
+        return current;
+    }
+
+    private long currentSecond() {
+        return clock.getAsLong() - EPOCH_SECOND;
+    }
+}
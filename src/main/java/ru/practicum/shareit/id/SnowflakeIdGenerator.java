@@ -0,0 +1,38 @@
+package ru.practicum.shareit.id;
+
+import org.hibernate.engine.config.spi.ConfigurationService;
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.id.IdentifierGenerator;
+import org.hibernate.service.ServiceRegistry;
+import org.hibernate.type.Type;
+
+import java.io.Serializable;
+import java.util.Properties;
+
+/**
+ * Assigns ids in-process so Hibernate can batch inserts, unlike IDENTITY columns.
+ * The node id is read from the {@value #NODE_ID_SETTING} Hibernate setting, which has no default:
+ * every instance must be given its own.
+ */
+public class SnowflakeIdGenerator implements IdentifierGenerator {
+    public static final String NAME = "snowflake";
+    public static final String STRATEGY = "ru.practicum.shareit.id.SnowflakeIdGenerator";
+    public static final String NODE_ID_SETTING = "shareit.id.node-id";
+
+    private SnowflakeIdAllocator allocator;
+
+    @Override
+    public void configure(Type type, Properties params, ServiceRegistry serviceRegistry) {
+        Integer nodeId = serviceRegistry.getService(ConfigurationService.class)
+                .getSetting(NODE_ID_SETTING, value -> Integer.valueOf(value.toString().trim()));
+        if (nodeId == null) {
+            throw new IllegalStateException("Не задан идентификатор узла " + NODE_ID_SETTING + ".");
+        }
+        allocator = new SnowflakeIdAllocator(nodeId);
+    }
+
+    @Override
+    public Serializable generate(SharedSessionContractImplementor session, Object object) {
+        return allocator.nextId();
+    }
+}
@@ -0,0 +1,9 @@
+package ru.practicum.shareit.item.comment.dto;
+
+import lombok.Value;
+
+@Value
+public class CommentCount {
+    Long itemId;
+    Long count;
+}
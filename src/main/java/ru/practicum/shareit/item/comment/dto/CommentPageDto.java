@@ -0,0 +1,13 @@
+package ru.practicum.shareit.item.comment.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+import java.util.List;
+
+@Data
+@Builder
+public class CommentPageDto {
+    private List<CommentDto> comments;
+    private String nextCursor;
+}
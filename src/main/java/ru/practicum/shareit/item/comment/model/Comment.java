@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.comment.model;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import ru.practicum.shareit.id.SnowflakeIdGenerator;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.user.model.User;
 
@@ -16,7 +18,8 @@ import java.time.LocalDateTime;
 @Table(name = "comments")
 public class Comment {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+    @GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = SnowflakeIdGenerator.STRATEGY)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -1,12 +1,53 @@
 package ru.practicum.shareit.item.comment.repository;
 
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.comment.dto.CommentCount;
 import ru.practicum.shareit.item.comment.model.Comment;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.List;
+import java.util.stream.Collectors;
 
 public interface CommentRepository extends JpaRepository<Comment, Long> {
-    @Query("select c from Comment c where c.item.id = ?1 order by c.id")
-    List<Comment> findAllByItemId(Long itemId);
+    @Query("select c from Comment c " +
+            "join fetch c.author " +
+            "where c.item.id = ?1 " +
+            "and c.id < ?2 " +
+            "order by c.id desc")
+    List<Comment> findAllByItemIdBefore(Long itemId, Long beforeId, Pageable page);
+
+    /**
+     * Numbers the comments of each item newest first in one pass over the (item_id, id) index.
+     */
+    @Query(value = "select r.id from (" +
+            "select c.id, row_number() over (partition by c.item_id order by c.id desc) as rn " +
+            "from comments c " +
+            "where c.item_id in ?1) r " +
+            "where r.rn <= ?2",
+            nativeQuery = true)
+    List<Number> findRecentIdsByItemIdIn(Collection<Long> itemIds, long limit);
+
+    @Query("select c from Comment c " +
+            "join fetch c.author " +
+            "where c.id in ?1 " +
+            "order by c.id")
+    List<Comment> findAllWithAuthorByIdIn(Collection<Long> commentIds);
+
+    /**
+     * The latest comments of each item, oldest first within each item.
+     */
+    default List<Comment> findRecentByItemIdIn(Collection<Long> itemIds, long limit) {
+        List<Long> commentIds = findRecentIdsByItemIdIn(itemIds, limit).stream()
+                .map(Number::longValue)
+                .collect(Collectors.toList());
+        return commentIds.isEmpty() ? Collections.emptyList() : findAllWithAuthorByIdIn(commentIds);
+    }
+
+    @Query("select new ru.practicum.shareit.item.comment.dto.CommentCount(c.item.id, count(c)) from Comment c " +
+            "where c.item.id in ?1 " +
+            "group by c.item.id")
+    List<CommentCount> countByItemIdIn(Collection<Long> itemIds);
 }
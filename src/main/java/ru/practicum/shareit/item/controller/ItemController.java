@@ -1,16 +1,27 @@
 package ru.practicum.shareit.item.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.dto.CommentPageDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemOutputDto;
 import ru.practicum.shareit.item.service.ItemService;
+import ru.practicum.shareit.pagination.SliceResponse;
 
+import javax.servlet.http.HttpServletRequest;
 import javax.validation.Valid;
+import javax.validation.constraints.Max;
 import javax.validation.constraints.NotNull;
+import javax.validation.constraints.Positive;
 import javax.validation.constraints.PositiveOrZero;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
 import java.util.List;
 
 @Validated
@@ -22,12 +33,12 @@ public class ItemController {
     private static final String USERID = "X-Sharer-User-Id";
 
     @GetMapping
-    public List<ItemOutputDto> getAllItemsByOwner(@RequestHeader(USERID) Long ownerId,
-                                                  @RequestParam(required = false, defaultValue = "0")
-                                                  @PositiveOrZero Integer from,
-                                                  @RequestParam(required = false, defaultValue = "20")
-                                                  @PositiveOrZero Integer size) {
-        return itemService.getAllItemsByOwner(ownerId, from, size);
+    public ResponseEntity<List<ItemOutputDto>> getAllItemsByOwner(@RequestHeader(USERID) Long ownerId,
+                                                                  @RequestParam(required = false, defaultValue = "0")
+                                                                  @PositiveOrZero Integer from,
+                                                                  @RequestParam(required = false, defaultValue = "20")
+                                                                  @PositiveOrZero Integer size) {
+        return SliceResponse.of(itemService.getAllItemsByOwner(ownerId, from, size));
     }
 
     @GetMapping("{itemId}")
@@ -37,12 +48,12 @@ public class ItemController {
     }
 
     @GetMapping("search")
-    public List<ItemInputDto> searchItems(@RequestParam String text,
-                                          @RequestParam(required = false, defaultValue = "0")
-                                          @PositiveOrZero Integer from,
-                                          @RequestParam(required = false, defaultValue = "20")
-                                          @PositiveOrZero Integer size) {
-        return itemService.searchItems(text, from, size);
+    public ResponseEntity<List<ItemInputDto>> searchItems(@RequestParam String text,
+                                                          @RequestParam(required = false, defaultValue = "0")
+                                                          @PositiveOrZero Integer from,
+                                                          @RequestParam(required = false, defaultValue = "20")
+                                                          @PositiveOrZero Integer size) {
+        return SliceResponse.of(itemService.searchItems(text, from, size));
     }
 
     @PostMapping
@@ -51,6 +62,13 @@ public class ItemController {
         return itemService.createItem(itemDto, ownerId);
     }
 
+    @PostMapping(path = "/import", consumes = "application/x-ndjson")
+    public ItemImportResultDto importItems(@RequestHeader(USERID) Long ownerId,
+                                           HttpServletRequest request) throws IOException {
+        return itemService.importItems(ownerId,
+                new BufferedReader(new InputStreamReader(request.getInputStream(), StandardCharsets.UTF_8)));
+    }
+
     @PatchMapping("/{itemId}")
     public ItemInputDto updateItem(@RequestHeader(USERID) Long userId,
                                    @PathVariable Long itemId,
@@ -69,4 +87,11 @@ public class ItemController {
                                     @Valid @NotNull @RequestBody CommentDto commentDto) {
         return itemService.createComment(userId, itemId, commentDto);
     }
+
+    @GetMapping("{itemId}/comments")
+    public CommentPageDto getComments(@PathVariable Long itemId,
+                                      @RequestParam(required = false) String afterId,
+                                      @RequestParam(defaultValue = "20") @Positive @Max(100) Integer limit) {
+        return itemService.getComments(itemId, afterId, limit);
+    }
 }
\ No newline at end of file
@@ -17,4 +17,5 @@ public class ItemOutputDto {
     private BookingDtoForItem lastBooking;
     private BookingDtoForItem nextBooking;
     private List<CommentDto> comments;
+    private Long commentCount;
 }
@@ -0,0 +1,26 @@
+package ru.practicum.shareit.item.model;
+
+import lombok.*;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * How far the last and next booking ids stored on items have been brought up to date, shared by all instances.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "booking_pointer_sweeps")
+public class BookingPointerSweep {
+    public static final Long ID = 1L;
+
+    @Id
+    @Column(name = "id", nullable = false)
+    private Long id;
+
+    @Column(name = "swept_until", nullable = false)
+    private LocalDateTime sweptUntil;
+}
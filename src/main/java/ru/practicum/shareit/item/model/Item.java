@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item.model;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import ru.practicum.shareit.id.SnowflakeIdGenerator;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
 
@@ -14,7 +16,8 @@ import javax.persistence.*;
 @Table(name = "items")
 public class Item {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+    @GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = SnowflakeIdGenerator.STRATEGY)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -34,4 +37,10 @@ public class Item {
     @ManyToOne
     @JoinColumn(name = "request_id", referencedColumnName = "id")
     private ItemRequest itemRequest;
+
+    @Column(name = "last_booking_id", insertable = false, updatable = false)
+    private Long lastBookingId;
+
+    @Column(name = "next_booking_id", insertable = false, updatable = false)
+    private Long nextBookingId;
 }
\ No newline at end of file
@@ -0,0 +1,17 @@
+package ru.practicum.shareit.item.repository;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.model.BookingPointerSweep;
+
+import java.time.LocalDateTime;
+
+public interface BookingPointerSweepRepository extends JpaRepository<BookingPointerSweep, Long> {
+    @Modifying
+    @Query("update BookingPointerSweep s " +
+            "set s.sweptUntil = ?2 " +
+            "where s.id = ?1 " +
+            "and s.sweptUntil < ?2")
+    int advance(Long id, LocalDateTime sweptUntil);
+}
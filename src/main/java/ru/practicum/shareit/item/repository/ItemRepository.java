@@ -1,21 +1,79 @@
 package ru.practicum.shareit.item.repository;
 
-import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import ru.practicum.shareit.item.dto.ItemSearchView;
 import ru.practicum.shareit.item.model.Item;
 
+import javax.persistence.LockModeType;
+import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 
 public interface ItemRepository extends JpaRepository<Item, Long> {
+    @Query("select i.id as id, i.name as name, i.description as description, i.available as available " +
+            "from Item i " +
+            "where i.id > ?1")
+    Slice<ItemSearchView> findSearchViewsByIdGreaterThan(Long afterId, Pageable page);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select i from Item i where i.id = ?1")
+    Optional<Item> findByIdForUpdate(Long itemId);
+
+    @Query(" select i.id from Item i " +
+            "where i.available = true " +
+            "and (lower(i.name) like concat('%', ?1, '%') escape '\\' " +
+            "or lower(i.description) like concat('%', ?1, '%') escape '\\') " +
+            "order by i.id")
+    Slice<Long> searchAvailableIds(String text, Pageable page);
+
     @Query(" select i from Item i " +
-            "where upper(i.name) like upper(concat('%', ?1, '%')) " +
-            "or upper(i.description) like upper(concat('%', ?1, '%'))")
-    Page<Item> search(String text, Pageable page);
+            "where i.owner.id = ?1 " +
+            "order by i.id")
+    Slice<Item> findAllByOwnerId(Long ownerId, Pageable page);
 
     @Query(" select i from Item i " +
-            "where i.itemRequest.id = ?1 " +
+            "where i.itemRequest.id in ?1 " +
             "order by i.id desc")
-    List<Item> findItemByItemRequestId(Long itemRequestId);
+    List<Item> findAllByItemRequestIdIn(Collection<Long> itemRequestIds);
+
+    @Query(" select i.id from Item i " +
+            "left join i.itemRequest r " +
+            "where i.owner.id = ?1 " +
+            "or r.requestor.id = ?1")
+    List<Long> findIdsByOwnerIdOrRequestorId(Long userId);
+
+    @Query(" select i.id from Item i " +
+            "where i.lastBookingId in (select b.id from Booking b where b.booker.id = ?1) " +
+            "or i.nextBookingId in (select b.id from Booking b where b.booker.id = ?1)")
+    List<Long> findIdsPointingToBookingsOf(Long bookerId);
+
+    @Modifying
+    @Query("update Item i " +
+            "set i.lastBookingId = ?2, i.nextBookingId = ?3 " +
+            "where i.id = ?1")
+    int updateBookingPointers(Long itemId, Long lastBookingId, Long nextBookingId);
+
+    @Modifying
+    @Query("update Item i " +
+            "set i.nextBookingId = ?2 " +
+            "where i.id = ?1 " +
+            "and not exists (select nb.id from Booking nb " +
+            "where nb.id = i.nextBookingId " +
+            "and nb.start <= ?3)")
+    int updateNextBookingIfEarlier(Long itemId, Long bookingId, LocalDateTime start);
+
+    @Modifying
+    @Query("update Item i " +
+            "set i.lastBookingId = ?2 " +
+            "where i.id = ?1 " +
+            "and not exists (select lb.id from Booking lb " +
+            "where lb.id = i.lastBookingId " +
+            "and lb.end >= ?3)")
+    int updateLastBookingIfLater(Long itemId, Long bookingId, LocalDateTime end);
 }
\ No newline at end of file
@@ -0,0 +1,104 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingPointer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.BookingPointerSweep;
+import ru.practicum.shareit.item.repository.BookingPointerSweepRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Keeps the last and next booking ids stored on items current. A new booking replaces a pointer in place
+ * when it is nearer to now; a periodic sweep recomputes items whose bookings started or ended since the last sweep.
+ * The sweep's progress is stored in the database, so a restart resumes where the previous run stopped.
+ * Evicting recomputed items from the detail cache is tracked per instance, since each one has its own cache.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemBookingPointers {
+    private static final int SWEEP_BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final BookingRepository bookingRepository;
+    private final ItemDetailCache itemDetailCache;
+    private final BookingPointerSweepRepository sweepRepository;
+    private final TransactionTemplate transactionTemplate;
+    private LocalDateTime evictedUntil = LocalDateTime.now();
+
+    public void bookingAdded(Booking booking) {
+        Long itemId = booking.getItem().getId();
+        LocalDateTime now = LocalDateTime.now();
+        if (booking.getStart().isAfter(now)) {
+            itemRepository.updateNextBookingIfEarlier(itemId, booking.getId(), booking.getStart());
+        } else if (booking.getEnd().isBefore(now)) {
+            itemRepository.updateLastBookingIfLater(itemId, booking.getId(), booking.getEnd());
+        }
+    }
+
+    /**
+     * Recomputes the given items in the current transaction, for changes the sweep does not see,
+     * such as bookings removed by a cascade.
+     */
+    public void recompute(List<Long> itemIds) {
+        LocalDateTime now = LocalDateTime.now();
+        for (int from = 0; from < itemIds.size(); from += SWEEP_BATCH_SIZE) {
+            refresh(itemIds.subList(from, Math.min(from + SWEEP_BATCH_SIZE, itemIds.size())), now);
+        }
+        itemIds.forEach(itemDetailCache::evict);
+    }
+
+    /**
+     * Each batch commits on its own and the stored progress moves only after all of them, so an interrupted
+     * sweep is repeated. Sweeps on several instances may overlap, which only repeats the same updates.
+     * Items are evicted from this instance's cache from where its previous sweep stopped, also when another
+     * instance has already recomputed them.
+     */
+    @Scheduled(fixedDelayString = "${shareit.booking-pointers.sweep-ms:30000}")
+    public synchronized void sweep() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime sweptUntil = sweepRepository.findById(BookingPointerSweep.ID)
+                .map(BookingPointerSweep::getSweptUntil)
+                .orElse(now);
+        List<Long> itemIds = List.of();
+        if (sweptUntil.isBefore(now)) {
+            itemIds = bookingRepository.findItemIdsWithBoundaryBetween(sweptUntil, now);
+            for (int from = 0; from < itemIds.size(); from += SWEEP_BATCH_SIZE) {
+                List<Long> batch = itemIds.subList(from, Math.min(from + SWEEP_BATCH_SIZE, itemIds.size()));
+                transactionTemplate.executeWithoutResult(status -> refresh(batch, now));
+            }
+            transactionTemplate.executeWithoutResult(status -> sweepRepository.advance(BookingPointerSweep.ID, now));
+            if (!itemIds.isEmpty()) {
+                log.info("Обновлены последнее и следующее бронирования предметов: {}", itemIds.size());
+            }
+        }
+        List<Long> staleItemIds = evictedUntil.isBefore(sweptUntil)
+                ? bookingRepository.findItemIdsWithBoundaryBetween(evictedUntil, now)
+                : itemIds;
+        staleItemIds.forEach(itemDetailCache::evict);
+        evictedUntil = now;
+    }
+
+    private void refresh(List<Long> itemIds, LocalDateTime now) {
+        Map<Long, Long> lastBookings = toMap(bookingRepository.findLastBookings(itemIds, now));
+        Map<Long, Long> nextBookings = toMap(bookingRepository.findNextBookings(itemIds, now));
+        for (Long itemId : itemIds) {
+            itemRepository.updateBookingPointers(itemId, lastBookings.get(itemId), nextBookings.get(itemId));
+        }
+    }
+
+    private static Map<Long, Long> toMap(List<BookingPointer> pointers) {
+        return pointers.stream()
+                .collect(Collectors.toMap(BookingPointer::getItemId, BookingPointer::getBookingId, (b1, b2) -> b1));
+    }
+}
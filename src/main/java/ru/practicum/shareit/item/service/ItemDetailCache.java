@@ -0,0 +1,166 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.AccessLevel;
+import lombok.EqualsAndHashCode;
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.cache.BoundedTtlCache;
+import ru.practicum.shareit.item.dto.ItemOutputDto;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import java.util.ArrayList;
+import java.util.Objects;
+import java.util.function.Supplier;
+
+/**
+ * Bounded TTL cache of assembled item details, kept separately for the owner's view and for everyone else's.
+ * Entries are evicted on item, comment and booking changes, and when the booking pointer sweep moves an item's
+ * last or next booking.
+ */
+@Slf4j
+@Component
+public class ItemDetailCache {
+    private final BoundedTtlCache<Key, ItemDetail> cache;
+
+    public ItemDetailCache(@Value("${shareit.item-cache.max-size:10000}") int maxSize,
+                           @Value("${shareit.item-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.cache = new BoundedTtlCache<>(maxSize, ttlSeconds);
+    }
+
+    public ItemOutputDto get(Long itemId, Long userId, Supplier<ItemDetail> loader) {
+        ItemDetail cached = find(itemId, userId);
+        if (cached != null) {
+            cache.recordHit();
+            return copyOf(cached.getItem());
+        }
+        cache.recordMiss();
+        long requestedAt = cache.generation();
+        ItemDetail loaded = loader.get();
+        long loadedAt = loaded.getGeneration() == null ? requestedAt : Math.min(requestedAt, loaded.getGeneration());
+        ItemDetail stored = new ItemDetail(loaded.getOwnerId(), copyOf(loaded.getItem()));
+        Key key = new Key(itemId, Objects.equals(userId, loaded.getOwnerId()));
+        TransactionCallbacks.afterCommit(() -> cache.put(key, stored, loadedAt));
+        return loaded.getItem();
+    }
+
+    /**
+     * Runs a load that several callers may share and stamps it with the generation it started in, so a caller
+     * that joins the load after an evict does not cache what the load read before it.
+     */
+    public ItemDetail load(Supplier<ItemDetail> loader) {
+        long startedAt = cache.generation();
+        ItemDetail loaded = loader.get();
+        return new ItemDetail(loaded.getOwnerId(), loaded.getItem(), startedAt);
+    }
+
+    public void evict(Long itemId) {
+        remove(itemId);
+        TransactionCallbacks.afterCommit(() -> remove(itemId));
+    }
+
+    /**
+     * Drops every entry, for changes that reach items beyond a known set, such as cascades of a user delete.
+     */
+    public void clear() {
+        cache.invalidateAll();
+        TransactionCallbacks.afterCommit(cache::invalidateAll);
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.item-cache.refresh-ms:60000}")
+    public void refresh() {
+        int removed = cache.removeExpired();
+        if (removed > 0) {
+            log.debug("Из кэша предметов удалено устаревших записей: {}", removed);
+        }
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    private ItemDetail find(Long itemId, Long userId) {
+        ItemDetail ownerView = cache.get(new Key(itemId, true));
+        if (ownerView != null && Objects.equals(userId, ownerView.getOwnerId())) {
+            return ownerView;
+        }
+        ItemDetail guestView = cache.get(new Key(itemId, false));
+        if (guestView != null && !Objects.equals(userId, guestView.getOwnerId())) {
+            return guestView;
+        }
+        return null;
+    }
+
+    private void remove(Long itemId) {
+        cache.invalidate(new Key(itemId, true), new Key(itemId, false));
+    }
+
+    private static ItemOutputDto copyOf(ItemOutputDto item) {
+        return ItemOutputDto.builder()
+                .id(item.getId())
+                .name(item.getName())
+                .description(item.getDescription())
+                .available(item.getAvailable())
+                .lastBooking(copyOf(item.getLastBooking()))
+                .nextBooking(copyOf(item.getNextBooking()))
+                .comments(item.getComments() == null ? null : new ArrayList<>(item.getComments()))
+                .commentCount(item.getCommentCount())
+                .build();
+    }
+
+    private static BookingDtoForItem copyOf(BookingDtoForItem booking) {
+        if (booking == null) {
+            return null;
+        }
+        return BookingDtoForItem.builder()
+                .id(booking.getId())
+                .bookerId(booking.getBookerId())
+                .build();
+    }
+
+    /**
+     * An assembled item together with its owner and, for shared loads, the cache generation the load started in.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static class ItemDetail {
+        private final Long ownerId;
+        private final ItemOutputDto item;
+        private final Long generation;
+
+        public ItemDetail(Long ownerId, ItemOutputDto item) {
+            this(ownerId, item, null);
+        }
+
+        /**
+         * Projects an owner's detail onto the given user: others do not see the last and next bookings.
+         */
+        public ItemDetail viewFor(Long userId) {
+            ItemOutputDto view = copyOf(item);
+            if (!Objects.equals(userId, ownerId)) {
+                view.setLastBooking(null);
+                view.setNextBooking(null);
+            }
+            return new ItemDetail(ownerId, view, generation);
+        }
+    }
+
+    @EqualsAndHashCode
+    @RequiredArgsConstructor
+    private static class Key {
+        private final Long itemId;
+        private final boolean owner;
+    }
+}
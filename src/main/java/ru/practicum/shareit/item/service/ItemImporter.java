@@ -0,0 +1,152 @@
+package ru.practicum.shareit.item.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.dao.DataAccessException;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.dto.ItemInputDto;
+import ru.practicum.shareit.item.dto.ItemMapper;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Reads items as NDJSON line by line and stores them in batches, each batch in its own transaction.
+ * Invalid lines are reported and skipped, the rest of the batch is still saved. A batch the database rejects
+ * is retried line by line, so only the offending lines are reported.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemImporter {
+    public static final int BATCH_SIZE = 500;
+
+    private final ItemRepository itemRepository;
+    private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemValidator itemValidator;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+
+    public ItemImportResultDto importItems(User owner, BufferedReader reader) {
+        List<ItemImportErrorDto> errors = new ArrayList<>();
+        List<ImportLine> batch = new ArrayList<>(BATCH_SIZE);
+        int imported = 0;
+        long lineNumber = 0;
+        try {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank()) {
+                    continue;
+                }
+                try {
+                    ItemInputDto itemDto = objectMapper.readValue(line, ItemInputDto.class);
+                    itemValidator.validate(itemDto);
+                    itemDto.setId(null);
+                    batch.add(new ImportLine(lineNumber, itemDto));
+                } catch (JsonProcessingException e) {
+                    errors.add(error(lineNumber, "Неверный формат строки."));
+                } catch (BadRequestException e) {
+                    errors.add(error(lineNumber, e.getMessage()));
+                }
+                if (batch.size() == BATCH_SIZE) {
+                    imported += saveBatch(owner, batch, errors);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        if (!batch.isEmpty()) {
+            imported += saveBatch(owner, batch, errors);
+        }
+        errors.sort(Comparator.comparing(ItemImportErrorDto::getLine));
+        log.info("Импортировано {} предметов владельца id={}, ошибок: {}", imported, owner.getId(), errors.size());
+        return ItemImportResultDto.builder()
+                .imported(imported)
+                .errors(errors)
+                .build();
+    }
+
+    private int saveBatch(User owner, List<ImportLine> batch, List<ItemImportErrorDto> errors) {
+        try {
+            return saveInTransaction(owner, batch, errors);
+        } catch (DataAccessException e) {
+            if (batch.size() == 1) {
+                log.warn("Не удалось сохранить предмет из строки {}: {}", batch.get(0).getNumber(), e.getMessage());
+                errors.add(error(batch.get(0).getNumber(), "Не удалось сохранить предмет."));
+                return 0;
+            }
+            log.warn("Не удалось сохранить пакет из {} предметов, сохраняем построчно: {}", batch.size(), e.getMessage());
+            int saved = 0;
+            for (ImportLine line : batch) {
+                saved += saveBatch(owner, List.of(line), errors);
+            }
+            return saved;
+        }
+    }
+
+    private int saveInTransaction(User owner, List<ImportLine> batch, List<ItemImportErrorDto> errors) {
+        Set<Long> requestIds = batch.stream()
+                .map(line -> line.getItemDto().getRequestId())
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        List<ItemImportErrorDto> batchErrors = new ArrayList<>();
+        Integer saved = transactionTemplate.execute(status -> {
+            Map<Long, ItemRequest> requests = requestIds.isEmpty() ? Collections.emptyMap() :
+                    itemRequestRepository.findAllById(requestIds).stream()
+                            .collect(Collectors.toMap(ItemRequest::getId, Function.identity()));
+            List<Item> items = new ArrayList<>(batch.size());
+            for (ImportLine line : batch) {
+                Long requestId = line.getItemDto().getRequestId();
+                ItemRequest itemRequest = requestId == null ? null : requests.get(requestId);
+                if (requestId != null && itemRequest == null) {
+                    batchErrors.add(error(line.getNumber(), "Запрос c id=" + requestId + " не найден."));
+                    continue;
+                }
+                items.add(ItemMapper.fromItemDto(line.getItemDto(), owner, itemRequest));
+            }
+            List<Item> savedItems = itemRepository.saveAll(items);
+            savedItems.forEach(itemSearchIndex::put);
+            return savedItems.size();
+        });
+        errors.addAll(batchErrors);
+        return saved == null ? 0 : saved;
+    }
+
+    private static ItemImportErrorDto error(Long line, String message) {
+        return ItemImportErrorDto.builder()
+                .line(line)
+                .error(message)
+                .build();
+    }
+
+    @Value
+    private static class ImportLine {
+        Long number;
+        ItemInputDto itemDto;
+    }
+}
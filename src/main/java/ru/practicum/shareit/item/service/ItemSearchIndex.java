@@ -0,0 +1,241 @@
+package ru.practicum.shareit.item.service;
+
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+
+import javax.annotation.PostConstruct;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+
+/**
+ * Trigram index over item names and descriptions, changes are applied after the transaction commits.
+ * Changes made through other instances are picked up periodically: new items by scanning ids above the last
+ * indexed one, since snowflake ids grow with time, and edits, deletes and late commits by a full rebuild.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ItemSearchIndex {
+    private static final int GRAM_LENGTH = 3;
+    private static final int SCAN_BATCH_SIZE = 1000;
+
+    private final ItemRepository itemRepository;
+    private final Object scanLock = new Object();
+    private volatile Index index = new Index();
+    private volatile long lastIndexedId;
+    private List<Consumer<Index>> changesDuringRebuild;
+
+    /**
+     * Builds a new index aside and swaps it in, replaying the changes committed meanwhile, so searches keep
+     * using the previous index until then.
+     */
+    @PostConstruct
+    @Scheduled(fixedDelayString = "${shareit.search-index.rebuild-ms:600000}",
+            initialDelayString = "${shareit.search-index.rebuild-ms:600000}")
+    public void rebuild() {
+        synchronized (scanLock) {
+            synchronized (this) {
+                changesDuringRebuild = new ArrayList<>();
+            }
+            Index rebuilt = new Index();
+            try {
+                long lastId = scan(0L, rebuilt::put);
+                synchronized (this) {
+                    changesDuringRebuild.forEach(change -> change.accept(rebuilt));
+                    index = rebuilt;
+                }
+                lastIndexedId = lastId;
+            } finally {
+                synchronized (this) {
+                    changesDuringRebuild = null;
+                }
+            }
+        }
+        log.info("Индекс поиска построен, предметов: {}", index.size());
+    }
+
+    @Scheduled(fixedDelayString = "${shareit.search-index.catch-up-ms:5000}")
+    public void catchUp() {
+        synchronized (scanLock) {
+            long lastId = scan(lastIndexedId, this::doPut);
+            if (lastId != lastIndexedId) {
+                log.debug("В индекс поиска добавлены предметы с id до {}", lastId);
+                lastIndexedId = lastId;
+            }
+        }
+    }
+
+    public void put(Item item) {
+        IndexedItem indexedItem = new IndexedItem(item.getId(), normalize(item.getName()),
+                normalize(item.getDescription()), Boolean.TRUE.equals(item.getAvailable()));
+        TransactionCallbacks.afterCommit(() -> doPut(indexedItem));
+    }
+
+    public void remove(Long itemId) {
+        TransactionCallbacks.afterCommit(() -> doRemove(itemId));
+    }
+
+    /**
+     * Queries shorter than a trigram have no postings to narrow them, so they are run against the database.
+     */
+    public Slice<Long> search(String text, Pageable page) {
+        String query = normalize(text);
+        if (query.length() < GRAM_LENGTH) {
+            return itemRepository.searchAvailableIds(escapeLike(query), page);
+        }
+        Index current = index;
+        List<Long> ids = current.findCandidates(query).stream()
+                .sorted()
+                .map(current.items::get)
+                .filter(Objects::nonNull)
+                .filter(indexedItem -> indexedItem.matches(query))
+                .map(IndexedItem::getId)
+                .skip(page.getOffset())
+                .limit(page.getPageSize() + 1L)
+                .collect(Collectors.toList());
+        boolean hasNext = ids.size() > page.getPageSize();
+        return new SliceImpl<>(hasNext ? ids.subList(0, page.getPageSize()) : ids, page, hasNext);
+    }
+
+    private long scan(long afterId, Consumer<IndexedItem> consumer) {
+        long lastId = afterId;
+        Slice<ItemSearchView> page;
+        do {
+            page = itemRepository.findSearchViewsByIdGreaterThan(lastId,
+                    PageRequest.of(0, SCAN_BATCH_SIZE, Sort.by("id")));
+            for (ItemSearchView view : page) {
+                consumer.accept(new IndexedItem(view.getId(), normalize(view.getName()),
+                        normalize(view.getDescription()), Boolean.TRUE.equals(view.getAvailable())));
+                lastId = view.getId();
+            }
+        } while (page.hasNext());
+        return lastId;
+    }
+
+    private synchronized void doPut(IndexedItem indexedItem) {
+        index.put(indexedItem);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(rebuilt -> rebuilt.put(indexedItem));
+        }
+    }
+
+    private synchronized void doRemove(Long itemId) {
+        index.remove(itemId);
+        if (changesDuringRebuild != null) {
+            changesDuringRebuild.add(rebuilt -> rebuilt.remove(itemId));
+        }
+    }
+
+    private static String normalize(String text) {
+        return text == null ? "" : text.toLowerCase(Locale.ROOT);
+    }
+
+    private static String escapeLike(String text) {
+        return text.replace("\\", "\\\\")
+                .replace("%", "\\%")
+                .replace("_", "\\_");
+    }
+
+    private static Set<String> grams(String text) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= text.length(); i++) {
+            grams.add(text.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    /**
+     * Postings and items of one generation of the index, writes to it are serialized by the enclosing index.
+     */
+    private static class Index {
+        private final Map<String, Set<Long>> postings = new ConcurrentHashMap<>();
+        private final Map<Long, IndexedItem> items = new ConcurrentSkipListMap<>();
+
+        int size() {
+            return items.size();
+        }
+
+        Collection<Long> findCandidates(String query) {
+            List<Set<Long>> sets = new ArrayList<>();
+            for (String gram : grams(query)) {
+                Set<Long> ids = postings.get(gram);
+                if (ids == null) {
+                    return Collections.emptyList();
+                }
+                sets.add(ids);
+            }
+            sets.sort(Comparator.comparingInt(Set::size));
+            Set<Long> result = new HashSet<>(sets.get(0));
+            for (int i = 1; i < sets.size() && !result.isEmpty(); i++) {
+                result.retainAll(sets.get(i));
+            }
+            return result;
+        }
+
+        void put(IndexedItem indexedItem) {
+            remove(indexedItem.getId());
+            items.put(indexedItem.getId(), indexedItem);
+            for (String gram : indexedItem.grams()) {
+                postings.computeIfAbsent(gram, key -> ConcurrentHashMap.newKeySet()).add(indexedItem.getId());
+            }
+        }
+
+        void remove(Long itemId) {
+            IndexedItem previous = items.remove(itemId);
+            if (previous == null) {
+                return;
+            }
+            for (String gram : previous.grams()) {
+                Set<Long> ids = postings.get(gram);
+                if (ids != null) {
+                    ids.remove(itemId);
+                    if (ids.isEmpty()) {
+                        postings.remove(gram);
+                    }
+                }
+            }
+        }
+    }
+
+    @Value
+    private static class IndexedItem {
+        Long id;
+        String name;
+        String description;
+        boolean available;
+
+        boolean matches(String query) {
+            return available && (name.contains(query) || description.contains(query));
+        }
+
+        Set<String> grams() {
+            Set<String> grams = ItemSearchIndex.grams(name);
+            grams.addAll(ItemSearchIndex.grams(description));
+            return grams;
+        }
+    }
+}
@@ -1,23 +1,30 @@
 package ru.practicum.shareit.item.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.dto.CommentPageDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemOutputDto;
 
-import java.util.List;
+import java.io.BufferedReader;
 
 public interface ItemService {
-    List<ItemOutputDto> getAllItemsByOwner(Long ownerId, Integer from, Integer size);
+    Slice<ItemOutputDto> getAllItemsByOwner(Long ownerId, Integer from, Integer size);
 
     ItemOutputDto getItemById(Long itemId, Long userId);
 
-    List<ItemInputDto> searchItems(String query, Integer from, Integer size);
+    Slice<ItemInputDto> searchItems(String query, Integer from, Integer size);
 
     ItemInputDto createItem(ItemInputDto itemDto, Long ownerId);
 
+    ItemImportResultDto importItems(Long ownerId, BufferedReader reader);
+
     ItemInputDto updateItem(Long itemId, ItemInputDto itemDto, Long userId);
 
     void deleteItem(Long itemId);
 
     CommentDto createComment(Long userId, Long itemId, CommentDto commentDto);
+
+    CommentPageDto getComments(Long itemId, String afterId, Integer limit);
 }
\ No newline at end of file
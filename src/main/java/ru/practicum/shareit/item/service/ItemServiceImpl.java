@@ -3,77 +3,118 @@ package ru.practicum.shareit.item.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
 import ru.practicum.shareit.booking.dto.BookingMapper;
-import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.StatusType;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.coalescing.SingleFlight;
+import ru.practicum.shareit.item.comment.dto.CommentCount;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CommentMapper;
+import ru.practicum.shareit.item.comment.dto.CommentPageDto;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.ForbiddenAccessException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemOutputDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.pagination.IdCursor;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 
+import java.io.BufferedReader;
 import java.time.LocalDateTime;
 import java.util.Collections;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ItemServiceImpl implements ItemService {
+    private static final int RECENT_COMMENTS = 10;
+
     private final ItemRepository itemRepository;
-    private final UserRepository userRepository;
+    private final UserResolver userResolver;
     private final BookingRepository bookingRepository;
     private final CommentRepository commentRepository;
     private final ItemRequestRepository itemRequestRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final ItemImporter itemImporter;
+    private final ItemValidator itemValidator;
+    private final ItemDetailCache itemDetailCache;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final SingleFlight singleFlight;
+    private final PlatformTransactionManager transactionManager;
 
     @Override
-    public List<ItemOutputDto> getAllItemsByOwner(Long ownerId, Integer from, Integer size) {
-        return itemRepository.findAll(getPageRequest(from, size)).stream()
-                .filter(item -> Objects.equals(item.getOwner().getId(), ownerId))
-                .map(item -> convertToItemOutputDto(item, ownerId))
-                .collect(Collectors.toList());
+    public Slice<ItemOutputDto> getAllItemsByOwner(Long ownerId, Integer from, Integer size) {
+        Slice<Item> items = itemRepository.findAllByOwnerId(ownerId, getPageRequest(from, size));
+        return new SliceImpl<>(convertToItemOutputDto(items.getContent(), ownerId), items.getPageable(), items.hasNext());
     }
 
+    /**
+     * Concurrent cache misses for one item share a single load of the owner's detail, and each caller takes its
+     * own view of it. Only that load opens a transaction, so callers waiting on it hold no connection.
+     */
     @Override
+    @Transactional(propagation = Propagation.SUPPORTS, readOnly = true)
     public ItemOutputDto getItemById(Long itemId, Long userId) {
-        Item item = itemRepository.findById(itemId)
-                .orElseThrow(() -> new ObjectNotFoundException("Предмет c id=" + itemId + " не найден."));
-        return convertToItemOutputDto(item, userId);
+        return itemDetailCache.get(itemId, userId, () -> singleFlight
+                .execute(List.of("item", itemId), () -> itemDetailCache
+                        .load(() -> readOnly().execute(status -> loadItemDetail(itemId))))
+                .viewFor(userId));
     }
 
     @Override
+    @Transactional
     public ItemInputDto createItem(ItemInputDto itemDto, Long ownerId) {
-        validate(itemDto);
-        User owner = userRepository.findById(ownerId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + ownerId + " не найден."));
+        itemValidator.validate(itemDto);
+        User owner = userResolver.getUser(ownerId);
         ItemRequest itemRequest = null;
         if (itemDto.getRequestId() != null) {
             itemRequest = itemRequestRepository.findById(itemDto.getRequestId())
                     .orElseThrow(() -> new ObjectNotFoundException("Запрос c id=" + itemDto.getRequestId() + " не найден."));
         }
-        Item item = ItemMapper.fromItemDto(itemDto, owner, itemRequest);
-        ItemInputDto itemInputDto = ItemMapper.toItemDto(itemRepository.save(item));
+        Item item = itemRepository.save(ItemMapper.fromItemDto(itemDto, owner, itemRequest));
+        itemSearchIndex.put(item);
+        ItemInputDto itemInputDto = ItemMapper.toItemDto(item);
         log.info("Создан предмет с id={}", itemInputDto.getId());
         return itemInputDto;
     }
 
     @Override
+    @Transactional(propagation = Propagation.NOT_SUPPORTED)
+    public ItemImportResultDto importItems(Long ownerId, BufferedReader reader) {
+        User owner = userResolver.getUser(ownerId);
+        return itemImporter.importItems(owner, reader);
+    }
+
+    @Override
+    @Transactional
     public ItemInputDto updateItem(Long itemId, ItemInputDto itemDto, Long userId) {
         Item itemUpd = itemRepository.findById(itemId)
                 .orElseThrow(() -> new ObjectNotFoundException("Предмет c id=" + itemId + " не найден."));
@@ -90,77 +131,121 @@ public class ItemServiceImpl implements ItemService {
         if (itemDto.getAvailable() != null) {
             itemUpd.setAvailable(itemDto.getAvailable());
         }
-        ItemInputDto itemUpdInputDto = ItemMapper.toItemDto(itemRepository.save(itemUpd));
+        itemUpd = itemRepository.save(itemUpd);
+        itemSearchIndex.put(itemUpd);
+        itemDetailCache.evict(itemId);
+        ItemInputDto itemUpdInputDto = ItemMapper.toItemDto(itemUpd);
         log.info("Изменен предмет с id={}", itemUpdInputDto.getId());
         return itemUpdInputDto;
     }
 
     @Override
+    @Transactional
     public void deleteItem(Long itemId) {
         itemRepository.deleteById(itemId);
+        itemSearchIndex.remove(itemId);
+        itemDetailCache.evict(itemId);
+        bookingIntervalIndex.removeItem(itemId);
         log.info("Удален предмен с id={}", itemId);
     }
 
     @Override
-    public List<ItemInputDto> searchItems(String query, Integer from, Integer size) {
+    public Slice<ItemInputDto> searchItems(String query, Integer from, Integer size) {
         if (query.isEmpty() || query.isBlank()) {
-            return Collections.emptyList();
+            return new SliceImpl<>(Collections.emptyList());
         } else {
-            return itemRepository.search(query, getPageRequest(from, size)).stream()
-                    .filter(Item::getAvailable)
+            Slice<Long> itemIds = itemSearchIndex.search(query, getPageRequest(from, size));
+            Map<Long, Item> items = itemRepository.findAllById(itemIds.getContent()).stream()
+                    .collect(Collectors.toMap(Item::getId, Function.identity()));
+            return new SliceImpl<>(itemIds.stream()
+                    .map(items::get)
+                    .filter(Objects::nonNull)
                     .map(ItemMapper::toItemDto)
-                    .collect(Collectors.toList());
+                    .collect(Collectors.toList()), itemIds.getPageable(), itemIds.hasNext());
         }
     }
 
     @Override
+    @Transactional
     public CommentDto createComment(Long userId, Long itemId, CommentDto commentDto) {
-        Booking booking = bookingRepository.findAllByBookerId(userId).stream()
-                .filter(b -> b.getItem().getId().equals(itemId))
-                .filter(b -> b.getEnd().isBefore(LocalDateTime.now()))
-                .findFirst()
-                .orElseThrow(() -> new BadRequestException("Пользователь c id=" + userId +
-                        " не имеет бронирований, к которым можно добавить комментарий."));
-        if (booking.getStatus().equals(StatusType.APPROVED)) {
-            User author = userRepository.findById(userId)
-                    .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + userId + " не найден."));
-            Item item = itemRepository.findById(itemId)
-                    .orElseThrow(() -> new ObjectNotFoundException("Предмет c id=" + itemId + " не найден."));
-            Comment comment = CommentMapper.fromCommentDto(commentDto, author, item);
-            return CommentMapper.toCommentDto(commentRepository.save(comment));
-        } else {
-            throw new BadRequestException("Статус бронирования - " + booking.getStatus().toString() +
-                    ". Добавление комментария не разрешено.");
+        if (!bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(userId, itemId,
+                StatusType.APPROVED, LocalDateTime.now())) {
+            throw new BadRequestException("Пользователь c id=" + userId +
+                    " не имеет бронирований, к которым можно добавить комментарий.");
         }
+        User author = userResolver.getUser(userId);
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new ObjectNotFoundException("Предмет c id=" + itemId + " не найден."));
+        Comment comment = CommentMapper.fromCommentDto(commentDto, author, item);
+        CommentDto savedComment = CommentMapper.toCommentDto(commentRepository.save(comment));
+        itemDetailCache.evict(itemId);
+        return savedComment;
     }
 
-    private void validate(ItemInputDto itemDto) {
-        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
-            throw new BadRequestException("Отсутствует краткое название.");
-        }
-        if (itemDto.getDescription() == null || itemDto.getDescription().isEmpty()) {
-            throw new BadRequestException("Отсутствует развёрнутое описание.");
-        }
-        if (itemDto.getAvailable() == null) {
-            throw new BadRequestException("Отсутствует статус.");
+    @Override
+    public CommentPageDto getComments(Long itemId, String afterId, Integer limit) {
+        if (!itemRepository.existsById(itemId)) {
+            throw new ObjectNotFoundException("Предмет c id=" + itemId + " не найден.");
         }
-    }
-
-    private ItemOutputDto convertToItemOutputDto(Item item, Long ownerId) {
-        Booking lastBooking = bookingRepository.findLastBooking(item.getId(), ownerId).orElse(null);
-        Booking nextBooking = bookingRepository.findNextBooking(item.getId(), ownerId).orElse(null);
-        List<CommentDto> comments = commentRepository.findAllByItemId(item.getId()).stream()
+        List<Comment> comments = commentRepository.findAllByItemIdBefore(itemId, IdCursor.decode(afterId),
+                PageRequest.of(0, limit + 1));
+        boolean hasNext = comments.size() > limit;
+        List<CommentDto> page = comments.stream()
+                .limit(limit)
                 .map(CommentMapper::toCommentDto)
                 .collect(Collectors.toList());
-        ItemOutputDto itemOutputDto = ItemMapper.toItemOutputDto(item);
-        if (lastBooking != null) {
-            itemOutputDto.setLastBooking(BookingMapper.toBookingDtoForItem(lastBooking));
-        }
-        if (nextBooking != null) {
-            itemOutputDto.setNextBooking(BookingMapper.toBookingDtoForItem(nextBooking));
+        return CommentPageDto.builder()
+                .comments(page)
+                .nextCursor(hasNext ? IdCursor.encode(page.get(page.size() - 1).getId()) : null)
+                .build();
+    }
+
+    private ItemDetailCache.ItemDetail loadItemDetail(Long itemId) {
+        Item item = itemRepository.findById(itemId)
+                .orElseThrow(() -> new ObjectNotFoundException("Предмет c id=" + itemId + " не найден."));
+        Long ownerId = item.getOwner().getId();
+        return new ItemDetailCache.ItemDetail(ownerId, convertToItemOutputDto(List.of(item), ownerId).get(0));
+    }
+
+    private TransactionTemplate readOnly() {
+        TransactionTemplate transactionTemplate = new TransactionTemplate(transactionManager);
+        transactionTemplate.setReadOnly(true);
+        return transactionTemplate;
+    }
+
+    private List<ItemOutputDto> convertToItemOutputDto(List<Item> items, Long ownerId) {
+        if (items.isEmpty()) {
+            return Collections.emptyList();
         }
-        itemOutputDto.setComments(comments);
-        return itemOutputDto;
+        List<Long> itemIds = items.stream()
+                .map(Item::getId)
+                .collect(Collectors.toList());
+        Set<Long> bookingIds = items.stream()
+                .filter(item -> Objects.equals(item.getOwner().getId(), ownerId))
+                .flatMap(item -> Stream.of(item.getLastBookingId(), item.getNextBookingId()))
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Map<Long, BookingDtoForItem> bookings = bookingIds.isEmpty()
+                ? Collections.emptyMap()
+                : bookingRepository.findAllViewsByIdIn(bookingIds).stream()
+                .collect(Collectors.toMap(BookingView::getId, BookingMapper::toBookingDtoForItem));
+        Map<Long, List<CommentDto>> comments = commentRepository.findRecentByItemIdIn(itemIds, RECENT_COMMENTS).stream()
+                .collect(Collectors.groupingBy(c -> c.getItem().getId(),
+                        Collectors.mapping(CommentMapper::toCommentDto, Collectors.toList())));
+        Map<Long, Long> commentCounts = commentRepository.countByItemIdIn(itemIds).stream()
+                .collect(Collectors.toMap(CommentCount::getItemId, CommentCount::getCount));
+        return items.stream()
+                .map(item -> {
+                    ItemOutputDto itemOutputDto = ItemMapper.toItemOutputDto(item);
+                    if (Objects.equals(item.getOwner().getId(), ownerId)) {
+                        itemOutputDto.setLastBooking(bookings.get(item.getLastBookingId()));
+                        itemOutputDto.setNextBooking(bookings.get(item.getNextBookingId()));
+                    }
+                    itemOutputDto.setComments(comments.getOrDefault(item.getId(), Collections.emptyList()));
+                    itemOutputDto.setCommentCount(commentCounts.getOrDefault(item.getId(), 0L));
+                    return itemOutputDto;
+                })
+                .collect(Collectors.toList());
     }
 
     private PageRequest getPageRequest(Integer from, Integer size) {
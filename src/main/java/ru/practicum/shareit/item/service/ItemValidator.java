@@ -0,0 +1,32 @@
+package ru.practicum.shareit.item.service;
+
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.exceptions.BadRequestException;
+import ru.practicum.shareit.item.dto.ItemInputDto;
+
+/**
+ * Checks of a new item shared by item creation and import, so both reject the same input with the same messages.
+ */
+@Component
+public class ItemValidator {
+    private static final int MAX_NAME_LENGTH = 255;
+    private static final int MAX_DESCRIPTION_LENGTH = 1000;
+
+    public void validate(ItemInputDto itemDto) {
+        if (itemDto.getName() == null || itemDto.getName().isEmpty()) {
+            throw new BadRequestException("Отсутствует краткое название.");
+        }
+        if (itemDto.getName().length() > MAX_NAME_LENGTH) {
+            throw new BadRequestException("Краткое название длиннее " + MAX_NAME_LENGTH + " символов.");
+        }
+        if (itemDto.getDescription() == null || itemDto.getDescription().isEmpty()) {
+            throw new BadRequestException("Отсутствует развёрнутое описание.");
+        }
+        if (itemDto.getDescription().length() > MAX_DESCRIPTION_LENGTH) {
+            throw new BadRequestException("Развёрнутое описание длиннее " + MAX_DESCRIPTION_LENGTH + " символов.");
+        }
+        if (itemDto.getAvailable() == null) {
+            throw new BadRequestException("Отсутствует статус.");
+        }
+    }
+}
@@ -0,0 +1,46 @@
+package ru.practicum.shareit.metrics.controller;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import ru.practicum.shareit.coalescing.SingleFlight;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.metrics.dto.CacheMetricsDto;
+import ru.practicum.shareit.metrics.dto.MetricsDto;
+import ru.practicum.shareit.metrics.dto.SingleFlightMetricsDto;
+import ru.practicum.shareit.user.service.UserResolver;
+
+/**
+ * Read-only counters of the in-process caches and of request coalescing, as seen by this instance since it started.
+ */
+@RestController
+@RequiredArgsConstructor
+@RequestMapping(path = "/metrics")
+public class MetricsController {
+    private final UserResolver userResolver;
+    private final ItemDetailCache itemDetailCache;
+    private final SingleFlight singleFlight;
+
+    @GetMapping
+    public MetricsDto getMetrics() {
+        return MetricsDto.builder()
+                .userCache(CacheMetricsDto.builder()
+                        .hits(userResolver.getHits())
+                        .misses(userResolver.getMisses())
+                        .size(userResolver.getSize())
+                        .build())
+                .itemCache(CacheMetricsDto.builder()
+                        .hits(itemDetailCache.getHits())
+                        .misses(itemDetailCache.getMisses())
+                        .size(itemDetailCache.getSize())
+                        .build())
+                .singleFlight(SingleFlightMetricsDto.builder()
+                        .calls(singleFlight.getCalls())
+                        .shared(singleFlight.getShared())
+                        .dedupeRatio(singleFlight.getDedupeRatio())
+                        .inFlight(singleFlight.getInFlight())
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package ru.practicum.shareit.metrics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class CacheMetricsDto {
+    private long hits;
+    private long misses;
+    private int size;
+}
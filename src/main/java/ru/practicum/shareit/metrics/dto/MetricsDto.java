@@ -0,0 +1,12 @@
+package ru.practicum.shareit.metrics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class MetricsDto {
+    private CacheMetricsDto userCache;
+    private CacheMetricsDto itemCache;
+    private SingleFlightMetricsDto singleFlight;
+}
@@ -0,0 +1,13 @@
+package ru.practicum.shareit.metrics.dto;
+
+import lombok.Builder;
+import lombok.Data;
+
+@Data
+@Builder
+public class SingleFlightMetricsDto {
+    private long calls;
+    private long shared;
+    private double dedupeRatio;
+    private int inFlight;
+}
@@ -0,0 +1,23 @@
+package ru.practicum.shareit.pagination;
+
+import org.springframework.data.domain.Slice;
+import org.springframework.http.ResponseEntity;
+
+import java.util.List;
+
+/**
+ * Writes a slice as a plain JSON array and tells the client whether another page exists in the {@value #HAS_NEXT}
+ * header, so list endpoints never need a count query.
+ */
+public final class SliceResponse {
+    public static final String HAS_NEXT = "X-Has-Next";
+
+    private SliceResponse() {
+    }
+
+    public static <T> ResponseEntity<List<T>> of(Slice<T> slice) {
+        return ResponseEntity.ok()
+                .header(HAS_NEXT, String.valueOf(slice.hasNext()))
+                .body(slice.getContent());
+    }
+}
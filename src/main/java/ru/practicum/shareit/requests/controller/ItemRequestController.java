@@ -1,8 +1,10 @@
 package ru.practicum.shareit.requests.controller;
 
 import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
 import org.springframework.validation.annotation.Validated;
 import org.springframework.web.bind.annotation.*;
+import ru.practicum.shareit.pagination.SliceResponse;
 import ru.practicum.shareit.requests.service.ItemRequestService;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestOutputDto;
@@ -38,11 +40,11 @@ public class ItemRequestController {
     }
 
     @GetMapping("/all")
-    public List<ItemRequestOutputDto> getAllRequests(@RequestHeader(USERID) Long requesterId,
-                                                     @RequestParam(required = false, defaultValue = "0")
-                                                     @PositiveOrZero Integer from,
-                                                     @RequestParam(required = false, defaultValue = "20")
-                                                     @PositiveOrZero Integer size) {
-        return itemRequestService.findAllRequest(requesterId, from, size);
+    public ResponseEntity<List<ItemRequestOutputDto>> getAllRequests(@RequestHeader(USERID) Long requesterId,
+                                                                     @RequestParam(required = false, defaultValue = "0")
+                                                                     @PositiveOrZero Integer from,
+                                                                     @RequestParam(required = false, defaultValue = "20")
+                                                                     @PositiveOrZero Integer size) {
+        return SliceResponse.of(itemRequestService.findAllRequest(requesterId, from, size));
     }
 }
\ No newline at end of file
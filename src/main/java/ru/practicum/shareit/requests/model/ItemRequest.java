@@ -1,6 +1,8 @@
 package ru.practicum.shareit.requests.model;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import ru.practicum.shareit.id.SnowflakeIdGenerator;
 import ru.practicum.shareit.user.model.User;
 
 import javax.persistence.*;
@@ -14,7 +16,8 @@ import java.time.LocalDateTime;
 @Table(name = "requests")
 public class ItemRequest {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+    @GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = SnowflakeIdGenerator.STRATEGY)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -1,5 +1,7 @@
 package ru.practicum.shareit.requests.repository;
 
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.requests.model.ItemRequest;
@@ -11,4 +13,8 @@ public interface ItemRequestRepository extends JpaRepository<ItemRequest, Long>
             "where ir.requestor.id = ?1 " +
             "order by ir.id desc")
     List<ItemRequest> findItemRequestsByRequestorId(Long itemRequestId);
+
+    @Query(" select ir from ItemRequest ir " +
+            "where ir.requestor.id <> ?1")
+    Slice<ItemRequest> findAllByRequestorIdNot(Long requestorId, Pageable page);
 }
\ No newline at end of file
@@ -1,5 +1,6 @@
 package ru.practicum.shareit.requests.service;
 
+import org.springframework.data.domain.Slice;
 import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestOutputDto;
 
@@ -12,5 +13,5 @@ public interface ItemRequestService {
 
     List<ItemRequestOutputDto> findAllRequestFromRequester(Long requesterId);
 
-    List<ItemRequestOutputDto> findAllRequest(Long userId, Integer from, Integer size);
+    Slice<ItemRequestOutputDto> findAllRequest(Long userId, Integer from, Integer size);
 }
\ No newline at end of file
@@ -3,8 +3,11 @@ package ru.practicum.shareit.requests.service;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
@@ -15,24 +18,27 @@ import ru.practicum.shareit.requests.dto.ItemRequestDto;
 import ru.practicum.shareit.requests.dto.ItemRequestOutputDto;
 import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 
+import java.util.Collections;
 import java.util.List;
-import java.util.Objects;
+import java.util.Map;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class ItemRequestServiceImpl implements ItemRequestService {
     private final ItemRequestRepository itemRequestRepository;
-    private final UserRepository userRepository;
+    private final UserResolver userResolver;
     private final ItemRepository itemRepository;
 
     @Override
+    @Transactional
     public ItemRequestDto createRequest(Long userId, ItemRequestDto itemRequestDto) {
-        User requester = userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + userId + " не найден."));
+        User requester = userResolver.getUser(userId);
         ItemRequest itemRequest = ItemRequestMapper.fromItemRequestDto(itemRequestDto, requester);
         ItemRequestDto itemRequestCreated = ItemRequestMapper.toItemRequestDto(itemRequestRepository.save(itemRequest));
         log.info("Создан запрос с id={}", itemRequestCreated.getId());
@@ -41,36 +47,39 @@ public class ItemRequestServiceImpl implements ItemRequestService {
 
     @Override
     public ItemRequestOutputDto findRequestById(Long requestId, Long userId) {
-        userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + userId + " не найден."));
+        userResolver.getUser(userId);
         ItemRequest itemRequest = itemRequestRepository.findById(requestId)
                 .orElseThrow(() -> new ObjectNotFoundException("Запрос c id=" + requestId + " не найден."));
-        List<ItemInputDto> items = getItems(requestId);
-        return ItemRequestMapper.itemRequestOutputDto(itemRequest, items);
+        return toItemRequestOutputDtos(List.of(itemRequest)).get(0);
     }
 
     @Override
     public List<ItemRequestOutputDto> findAllRequestFromRequester(Long requesterId) {
-        userRepository.findById(requesterId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + requesterId + " не найден."));
-        return itemRequestRepository.findItemRequestsByRequestorId(requesterId).stream()
-                .map(request -> ItemRequestMapper.itemRequestOutputDto(request, getItems(request.getId())))
-                .collect(Collectors.toList());
+        userResolver.getUser(requesterId);
+        return toItemRequestOutputDtos(itemRequestRepository.findItemRequestsByRequestorId(requesterId));
     }
 
     @Override
-    public List<ItemRequestOutputDto> findAllRequest(Long userId, Integer from, Integer size) {
-        User requester = userRepository.findById(userId)
-                .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + userId + " не найден."));
-        return itemRequestRepository.findAll(getPageRequest(from, size)).stream()
-                .filter(itemRequest -> !Objects.equals(itemRequest.getRequestor().getId(), requester.getId()))
-                .map(request -> ItemRequestMapper.itemRequestOutputDto(request, getItems(request.getId())))
-                .collect(Collectors.toList());
+    public Slice<ItemRequestOutputDto> findAllRequest(Long userId, Integer from, Integer size) {
+        userResolver.getUser(userId);
+        Slice<ItemRequest> requests = itemRequestRepository.findAllByRequestorIdNot(userId, getPageRequest(from, size));
+        return new SliceImpl<>(toItemRequestOutputDtos(requests.getContent()), requests.getPageable(),
+                requests.hasNext());
     }
 
-    private List<ItemInputDto> getItems(Long requestId) {
-        return itemRepository.findItemByItemRequestId(requestId).stream()
+    private List<ItemRequestOutputDto> toItemRequestOutputDtos(List<ItemRequest> itemRequests) {
+        if (itemRequests.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Set<Long> requestIds = itemRequests.stream()
+                .map(ItemRequest::getId)
+                .collect(Collectors.toSet());
+        Map<Long, List<ItemInputDto>> items = itemRepository.findAllByItemRequestIdIn(requestIds).stream()
                 .map(ItemMapper::toItemDto)
+                .collect(Collectors.groupingBy(ItemInputDto::getRequestId));
+        return itemRequests.stream()
+                .map(request -> ItemRequestMapper.itemRequestOutputDto(request,
+                        items.getOrDefault(request.getId(), Collections.emptyList())))
                 .collect(Collectors.toList());
     }
 
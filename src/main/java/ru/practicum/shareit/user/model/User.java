@@ -1,9 +1,12 @@
 package ru.practicum.shareit.user.model;
 
 import lombok.*;
+import org.hibernate.annotations.GenericGenerator;
+import ru.practicum.shareit.id.SnowflakeIdGenerator;
 
 import javax.persistence.*;
 import javax.validation.constraints.Email;
+import java.util.Locale;
 
 @Data
 @Builder
@@ -13,7 +16,8 @@ import javax.validation.constraints.Email;
 @Table(name = "users")
 public class User {
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(generator = SnowflakeIdGenerator.NAME)
+    @GenericGenerator(name = SnowflakeIdGenerator.NAME, strategy = SnowflakeIdGenerator.STRATEGY)
     @Column(name = "id", nullable = false)
     private Long id;
 
@@ -23,4 +27,18 @@ public class User {
     @Email
     @Column(name = "email", nullable = false, unique = true)
     private String email;
+
+    @EqualsAndHashCode.Exclude
+    @Column(name = "email_normalized", nullable = false, unique = true)
+    private String emailNormalized;
+
+    public static String normalizeEmail(String email) {
+        return email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    @PrePersist
+    @PreUpdate
+    private void normalize() {
+        emailNormalized = normalizeEmail(email);
+    }
 }
\ No newline at end of file
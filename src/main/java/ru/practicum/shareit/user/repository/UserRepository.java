@@ -1,6 +1,13 @@
 package ru.practicum.shareit.user.repository;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import ru.practicum.shareit.user.model.User;
 
-public interface UserRepository extends JpaRepository<User,Long> {}
\ No newline at end of file
+public interface UserRepository extends JpaRepository<User,Long> {
+    @Query("select count(u) > 0 from User u where u.emailNormalized = ?1")
+    boolean existsByEmailNormalized(String emailNormalized);
+
+    @Query("select count(u) > 0 from User u where u.emailNormalized = ?1 and u.id <> ?2")
+    boolean existsByEmailNormalizedAndIdNot(String emailNormalized, Long id);
+}
\ No newline at end of file
@@ -0,0 +1,67 @@
+package ru.practicum.shareit.user.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import ru.practicum.shareit.cache.BoundedTtlCache;
+import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.transaction.TransactionCallbacks;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+
+/**
+ * Resolves the calling user by id through a bounded TTL cache. Users loaded inside a transaction are cached
+ * only after it commits, and not at all if a user was evicted since the load began.
+ */
+@Component
+public class UserResolver {
+    private final UserRepository userRepository;
+    private final BoundedTtlCache<Long, User> cache;
+
+    public UserResolver(UserRepository userRepository,
+                        @Value("${shareit.user-cache.max-size:10000}") int maxSize,
+                        @Value("${shareit.user-cache.ttl-seconds:300}") long ttlSeconds) {
+        this.userRepository = userRepository;
+        this.cache = new BoundedTtlCache<>(maxSize, ttlSeconds);
+    }
+
+    public User getUser(Long userId) {
+        User cached = cache.get(userId);
+        if (cached != null) {
+            cache.recordHit();
+            return copyOf(cached);
+        }
+        cache.recordMiss();
+        long loadedAt = cache.generation();
+        User user = userRepository.findById(userId)
+                .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + userId + " не найден."));
+        User loaded = copyOf(user);
+        TransactionCallbacks.afterCommit(() -> cache.put(userId, loaded, loadedAt));
+        return user;
+    }
+
+    public void evict(Long userId) {
+        cache.invalidate(userId);
+        TransactionCallbacks.afterCommit(() -> cache.invalidate(userId));
+    }
+
+    public long getHits() {
+        return cache.getHits();
+    }
+
+    public long getMisses() {
+        return cache.getMisses();
+    }
+
+    public int getSize() {
+        return cache.size();
+    }
+
+    private static User copyOf(User user) {
+        return User.builder()
+                .id(user.getId())
+                .name(user.getName())
+                .email(user.getEmail())
+                .emailNormalized(user.getEmailNormalized())
+                .build();
+    }
+}
@@ -2,10 +2,18 @@ package ru.practicum.shareit.user.service;
 
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.hibernate.exception.ConstraintViolationException;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
@@ -18,8 +26,17 @@ import java.util.stream.Collectors;
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class UserServiceImpl implements UserService {
+    private static final String EMAIL_CONSTRAINT = "UQ_USER_EMAIL";
+
     private final UserRepository userRepository;
+    private final UserResolver userResolver;
+    private final ItemRepository itemRepository;
+    private final ItemSearchIndex itemSearchIndex;
+    private final BookingIntervalIndex bookingIntervalIndex;
+    private final ItemDetailCache itemDetailCache;
+    private final ItemBookingPointers itemBookingPointers;
 
     @Override
     public List<UserDto> getAllUsers() {
@@ -36,41 +53,78 @@ public class UserServiceImpl implements UserService {
     }
 
     @Override
+    @Transactional
     public UserDto createUser(UserDto userDto) {
         if (userDto.getEmail() == null || userDto.getEmail().isEmpty()) {
             log.warn("При создании профиля не была указана почта пользователя.");
             throw new BadRequestException("Не указана почта пользователя.");
         }
-        User user = userRepository.save(UserMapper.fromUserDto(userDto));
+        if (userRepository.existsByEmailNormalized(User.normalizeEmail(userDto.getEmail()))) {
+            throw emailTaken(userDto.getEmail());
+        }
+        User user = save(UserMapper.fromUserDto(userDto));
         log.info("Создан профиль пользователя {}, id={}", user.getName(), user.getId());
         return UserMapper.toUserDto(user);
     }
 
     @Override
+    @Transactional
     public UserDto updateUser(Long id, UserDto userDto) {
         User userUpd = userRepository.findById(id)
                 .orElseThrow(() -> new ObjectNotFoundException("Пользователь c id=" + id + "не найден."));
         if (userDto.getName() != null) {
             userUpd.setName(userDto.getName());
         }
-        if (userDto.getEmail() != null && validateEmail(userDto.getEmail())) {
+        if (userDto.getEmail() != null) {
+            if (userRepository.existsByEmailNormalizedAndIdNot(User.normalizeEmail(userDto.getEmail()), id)) {
+                throw emailTaken(userDto.getEmail());
+            }
             userUpd.setEmail(userDto.getEmail());
         }
-        UserDto userDtoUpd = UserMapper.toUserDto(userRepository.save(userUpd));
+        UserDto userDtoUpd = UserMapper.toUserDto(save(userUpd));
+        userResolver.evict(id);
         log.info("Изменен профиль пользователя {}, id={}", userDtoUpd.getName(), userDtoUpd.getId());
         return userDtoUpd;
     }
 
     @Override
+    @Transactional
     public void deleteUser(Long id) {
+        List<Long> itemIds = itemRepository.findIdsByOwnerIdOrRequestorId(id);
+        List<Long> pointingItemIds = itemRepository.findIdsPointingToBookingsOf(id);
+        bookingIntervalIndex.removeUser(id, itemIds);
         userRepository.deleteById(id);
+        userRepository.flush();
+        itemBookingPointers.recompute(pointingItemIds);
+        userResolver.evict(id);
+        itemIds.forEach(itemSearchIndex::remove);
+        itemDetailCache.clear();
         log.info("Удален  профиль пользователя , id={}", id);
     }
 
-    private boolean validateEmail(String email) {
-        if (userRepository.findAll().stream()
-                .anyMatch(u -> u.getEmail().toLowerCase(Locale.ROOT).equals(email.toLowerCase()))) {
-            throw new ValidationException("Пользователь с почтой " + email + " уже добавлен.");
-        } else return true;
+    private User save(User user) {
+        try {
+            return userRepository.saveAndFlush(user);
+        } catch (DataIntegrityViolationException e) {
+            if (violatesEmailConstraint(e)) {
+                throw emailTaken(user.getEmail());
+            }
+            throw e;
+        }
+    }
+
+    private static boolean violatesEmailConstraint(Throwable e) {
+        for (Throwable cause = e; cause != null; cause = cause.getCause()) {
+            if (cause instanceof ConstraintViolationException) {
+                String constraintName = ((ConstraintViolationException) cause).getConstraintName();
+                return constraintName != null && constraintName.toUpperCase(Locale.ROOT).contains(EMAIL_CONSTRAINT);
+            }
+        }
+        return false;
+    }
+
+    private ValidationException emailTaken(String email) {
+        log.warn("Пользователь с почтой {} уже добавлен.", email);
+        return new ValidationException("Пользователь с почтой " + email + " уже добавлен.");
     }
 }
\ No newline at end of file
@@ -0,0 +1,13 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id ON bookings (booker_id, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id_status ON bookings (booker_id, status, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id ON bookings (item_id, id);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_start_date ON bookings (item_id, start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_end_date ON bookings (item_id, end_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_status_end_date ON bookings (status, end_date);
+
+CREATE INDEX IF NOT EXISTS idx_items_owner_id ON items (owner_id, id);
+CREATE INDEX IF NOT EXISTS idx_items_request_id ON items (request_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_comments_item_id ON comments (item_id, id);
+
+CREATE INDEX IF NOT EXISTS idx_requests_requester_id ON requests (requester_id, id);
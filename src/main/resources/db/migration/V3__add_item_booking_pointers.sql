@@ -0,0 +1,19 @@
+ALTER TABLE items ADD COLUMN IF NOT EXISTS last_booking_id BIGINT;
+ALTER TABLE items ADD COLUMN IF NOT EXISTS next_booking_id BIGINT;
+
+CREATE INDEX IF NOT EXISTS idx_bookings_start_date ON bookings (start_date);
+CREATE INDEX IF NOT EXISTS idx_bookings_end_date ON bookings (end_date);
+
+UPDATE items i
+SET last_booking_id = (SELECT b.id
+                       FROM bookings b
+                       WHERE b.item_id = i.id
+                         AND b.end_date < CURRENT_TIMESTAMP
+                       ORDER BY b.end_date DESC
+                       LIMIT 1),
+    next_booking_id = (SELECT b.id
+                       FROM bookings b
+                       WHERE b.item_id = i.id
+                         AND b.start_date > CURRENT_TIMESTAMP
+                       ORDER BY b.start_date
+                       LIMIT 1);
@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_booker_id_item_id ON bookings (booker_id, item_id, status, end_date);
@@ -0,0 +1,9 @@
+CREATE TABLE IF NOT EXISTS booking_pointer_sweeps
+(
+    id          BIGINT                      NOT NULL,
+    swept_until TIMESTAMP WITHOUT TIME ZONE NOT NULL,
+    CONSTRAINT pk_booking_pointer_sweeps PRIMARY KEY (id)
+);
+
+INSERT INTO booking_pointer_sweeps (id, swept_until)
+VALUES (1, CURRENT_TIMESTAMP);
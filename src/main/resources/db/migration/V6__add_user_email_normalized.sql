@@ -0,0 +1,16 @@
+ALTER TABLE users ADD COLUMN IF NOT EXISTS email_normalized VARCHAR(512);
+
+UPDATE users
+SET email_normalized = LOWER(TRIM(email));
+
+-- Emails differing only in case or surrounding spaces: the earliest user keeps the normalized email,
+-- later ones get their id appended, which no valid email can match, and must change their email to update.
+UPDATE users
+SET email_normalized = email_normalized || '#' || id
+WHERE EXISTS(SELECT 1
+             FROM users earlier
+             WHERE LOWER(TRIM(earlier.email)) = LOWER(TRIM(users.email))
+               AND earlier.id < users.id);
+
+ALTER TABLE users ALTER COLUMN email_normalized SET NOT NULL;
+ALTER TABLE users ADD CONSTRAINT UQ_USER_EMAIL_NORMALIZED UNIQUE (email_normalized);
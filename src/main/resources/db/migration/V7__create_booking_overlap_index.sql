@@ -0,0 +1 @@
+CREATE INDEX IF NOT EXISTS idx_bookings_item_id_start_date_end_date ON bookings (item_id, start_date, end_date);
@@ -0,0 +1,61 @@
+package ru.practicum.shareit;
+
+import lombok.RequiredArgsConstructor;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+import static org.hamcrest.CoreMatchers.equalTo;
+import static org.hamcrest.MatcherAssert.assertThat;
+
+@SpringBootTest(
+        properties = "spring.datasource.url=" + SchemaMigrationTests.URL,
+        webEnvironment = SpringBootTest.WebEnvironment.NONE)
+@RequiredArgsConstructor(onConstructor_ = @Autowired)
+public class SchemaMigrationTests {
+    static final String URL = "jdbc:h2:mem:baseline;DB_CLOSE_DELAY=-1";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    @BeforeAll
+    static void createBaselineDatabase() throws SQLException {
+        try (Connection connection = DriverManager.getConnection(URL, "test", "test");
+             Statement statement = connection.createStatement()) {
+            statement.execute("RUNSCRIPT FROM 'classpath:/db/baseline/schema.sql'");
+            statement.execute("INSERT INTO users (name, email) VALUES ('UserName', ' User@Mail.ru ')");
+            statement.execute("INSERT INTO users (name, email) VALUES ('SameEmailUser', 'USER@mail.ru')");
+            statement.execute("INSERT INTO users (name, email) VALUES ('OtherUser', 'other@mail.ru')");
+        }
+    }
+
+    @Test
+    void baselineDatabaseIsMigratedInPlace() {
+        String baselineType = jdbcTemplate.queryForObject(
+                "select \"type\" from \"flyway_schema_history\" where \"version\" = '0'", String.class);
+        String emailNormalized = jdbcTemplate.queryForObject(
+                "select email_normalized from users where name = 'UserName'", String.class);
+
+        assertThat(baselineType, equalTo("BASELINE"));
+        assertThat(emailNormalized, equalTo("user@mail.ru"));
+    }
+
+    @Test
+    void caseVariantEmailsAreKeptApartByMigration() {
+        Long sameEmailUserId = jdbcTemplate.queryForObject(
+                "select id from users where name = 'SameEmailUser'", Long.class);
+        String sameEmailNormalized = jdbcTemplate.queryForObject(
+                "select email_normalized from users where name = 'SameEmailUser'", String.class);
+        String otherNormalized = jdbcTemplate.queryForObject(
+                "select email_normalized from users where name = 'OtherUser'", String.class);
+
+        assertThat(sameEmailNormalized, equalTo("user@mail.ru#" + sameEmailUserId));
+        assertThat(otherNormalized, equalTo("other@mail.ru"));
+    }
+}
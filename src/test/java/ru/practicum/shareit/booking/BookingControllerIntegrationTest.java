@@ -1,6 +1,8 @@
 package ru.practicum.shareit.booking;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -11,6 +13,7 @@ import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.StatusType;
 import ru.practicum.shareit.booking.service.BookingService;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
@@ -23,6 +26,7 @@ import ru.practicum.shareit.user.service.UserService;
 import javax.persistence.EntityManager;
 import javax.persistence.TypedQuery;
 import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
 import java.util.List;
 
 import static org.hamcrest.CoreMatchers.equalTo;
@@ -32,7 +36,7 @@ import static org.junit.jupiter.api.Assertions.*;
 
 @Transactional
 @SpringBootTest(
-        properties = "db.name=test",
+        properties = {"db.name=test", "spring.jpa.properties.hibernate.generate_statistics=true"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class BookingControllerIntegrationTest {
@@ -40,7 +44,7 @@ public class BookingControllerIntegrationTest {
     private final ItemService itemService;
     private final UserService userService;
     private final BookingService bookingService;
-    private final LocalDateTime date = LocalDateTime.now();
+    private final LocalDateTime date = LocalDateTime.now().truncatedTo(ChronoUnit.SECONDS);
     private final User owner = User.builder()
             .id(1L)
             .name("UserName")
@@ -114,6 +118,51 @@ public class BookingControllerIntegrationTest {
         assertThat(booking1.getItem().getId(), equalTo(createdItem.getId()));
     }
 
+    @Test
+    void addBookingWhenOverlapIsOnlyInDatabaseShouldThrowException() {
+        entityManager.createNativeQuery("insert into bookings (id, start_date, end_date, item_id, booker_id, status) " +
+                        "values (1, ?1, ?2, ?3, ?4, 'APPROVED')")
+                .setParameter(1, date.plusDays(1))
+                .setParameter(2, date.plusDays(3))
+                .setParameter(3, createdItem.getId())
+                .setParameter(4, bookerCreated.getId())
+                .executeUpdate();
+        InputBookingDto bookingInputDto = InputBookingDto.builder()
+                .start(date.plusDays(2))
+                .end(date.plusDays(4))
+                .itemId(createdItem.getId())
+                .build();
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> bookingService.addBooking(bookerCreated.getId(), bookingInputDto));
+        assertThat(exception.getMessage(),
+                equalTo("Предмет c id=" + createdItem.getId() + " уже забронирован на указанный период."));
+    }
+
+    @Test
+    void deletingBookerMovesNextBookingPointer() {
+        UserDto anotherBooker = userService.createUser(UserDto.builder()
+                .name("BookerName2")
+                .email("booker2@mail.ru")
+                .build());
+        bookingService.addBooking(bookerCreated.getId(), InputBookingDto.builder()
+                .start(date.plusDays(1))
+                .end(date.plusDays(2))
+                .itemId(createdItem.getId())
+                .build());
+        BookingDto laterBooking = bookingService.addBooking(anotherBooker.getId(), InputBookingDto.builder()
+                .start(date.plusDays(3))
+                .end(date.plusDays(4))
+                .itemId(createdItem.getId())
+                .build());
+
+        userService.deleteUser(bookerCreated.getId());
+        entityManager.clear();
+
+        Item item1 = entityManager.find(Item.class, createdItem.getId());
+        assertThat(item1.getNextBookingId(), equalTo(laterBooking.getId()));
+    }
+
     @Test
     void getAllByBookerId() {
         InputBookingDto bookingInputDto = InputBookingDto.builder()
@@ -128,7 +177,7 @@ public class BookingControllerIntegrationTest {
                 .itemId(createdAnotherItem.getId())
                 .build();
         BookingDto createdBooking2 = bookingService.addBooking(bookerCreated.getId(), anotherBookingInputDto);
-        List<BookingDto> bookings = bookingService.getAllByBookerId(bookerCreated.getId(), "ALL", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByBookerId(bookerCreated.getId(), "ALL", 0, 2).getContent();
 
         assertThat(bookings.size(), equalTo(2));
         assertTrue(bookings.contains(createdBooking));
@@ -149,12 +198,46 @@ public class BookingControllerIntegrationTest {
                 .itemId(createdAnotherItem.getId())
                 .build();
         BookingDto createdBooking2 = bookingService.addBooking(bookerCreated.getId(), anotherBookingInputDto);
-        List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerCreated.getId(), "ALL", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByOwnerId(ownerCreated.getId(), "ALL", 0, 2).getContent();
 
         assertThat(bookings.size(), equalTo(2));
         assertTrue(bookings.contains(createdBooking));
         assertTrue(bookings.contains(createdBooking2));
     }
-}
-
 
+    @Test
+    void bookingPageLoadsInOneQuery() {
+        BookingDto createdBooking = bookingService.addBooking(bookerCreated.getId(), InputBookingDto.builder()
+                .start(date.plusDays(1))
+                .end(date.plusDays(2))
+                .itemId(createdItem.getId())
+                .build());
+        bookingService.addBooking(bookerCreated.getId(), InputBookingDto.builder()
+                .start(date.plusDays(1))
+                .end(date.plusDays(2))
+                .itemId(createdAnotherItem.getId())
+                .build());
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        List<BookingDto> ownerBookings = bookingService.getAllByOwnerId(ownerCreated.getId(), "ALL", 0, 20).getContent();
+        assertThat(ownerBookings.size(), equalTo(2));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+
+        entityManager.clear();
+        statistics.clear();
+        List<BookingDto> bookerBookings = bookingService.getAllByBookerId(bookerCreated.getId(), "FUTURE", 0, 20).getContent();
+        assertThat(bookerBookings.size(), equalTo(2));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+
+        entityManager.clear();
+        statistics.clear();
+        BookingDto booking = bookingService.getById(ownerCreated.getId(), createdBooking.getId());
+        assertThat(booking, equalTo(createdBooking));
+        assertThat(statistics.getPrepareStatementCount(), equalTo(1L));
+    }
+}
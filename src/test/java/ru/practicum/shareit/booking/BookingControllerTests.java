@@ -6,31 +6,47 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.web.util.NestedServletException;
 import ru.practicum.shareit.booking.controller.BookingController;
+import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.BookingMapper;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.StatusType;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.pagination.IdCursor;
+import ru.practicum.shareit.pagination.SliceResponse;
 import ru.practicum.shareit.user.model.User;
 
 import java.nio.charset.StandardCharsets;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
 
 import static org.hamcrest.Matchers.is;
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.verifyNoInteractions;
 import static org.mockito.Mockito.when;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
 
 @WebMvcTest(controllers = BookingController.class)
@@ -151,6 +167,63 @@ public class BookingControllerTests {
                 .andExpect(status().isBadRequest());
     }
 
+    @Test
+    void approveBookings() throws Exception {
+        when(bookingService.approveBookings(owner.getId(), List.of(1L, 2L), true))
+                .thenReturn(List.of(
+                        BookingStatusUpdateDto.builder()
+                                .bookingId(1L)
+                                .status(StatusType.APPROVED)
+                                .error("Бронирование не нуждается в изменении статуса.")
+                                .build(),
+                        BookingStatusUpdateDto.builder()
+                                .bookingId(2L)
+                                .status(StatusType.APPROVED)
+                                .build()));
+
+        mvc.perform(patch("/bookings/batch")
+                        .content(mapper.writeValueAsString(List.of(1L, 2L)))
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("approved", "true")
+                        .characterEncoding(StandardCharsets.UTF_8)
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.length()").value(2))
+                .andExpect(jsonPath("$[0].error").exists())
+                .andExpect(jsonPath("$[1].bookingId", is(2L), Long.class))
+                .andExpect(jsonPath("$[1].status", is(StatusType.APPROVED.toString())));
+    }
+
+    @Test
+    void approveTooManyBookingsShouldFail() {
+        List<Long> bookingIds = LongStream.rangeClosed(1, 501).boxed().collect(Collectors.toList());
+        Exception e = assertThrows(NestedServletException.class, () -> {
+            mvc.perform(patch("/bookings/batch")
+                    .content(mapper.writeValueAsString(bookingIds))
+                    .header("X-Sharer-User-Id", owner.getId())
+                    .param("approved", "true")
+                    .characterEncoding(StandardCharsets.UTF_8)
+                    .contentType(MediaType.APPLICATION_JSON));
+        });
+        assertTrue(e.getCause().getLocalizedMessage().contains("size must be between 0 and 500"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void approveBookingsWithNullIdShouldFail() {
+        Exception e = assertThrows(NestedServletException.class, () -> {
+            mvc.perform(patch("/bookings/batch")
+                    .content("[1, null]")
+                    .header("X-Sharer-User-Id", owner.getId())
+                    .param("approved", "true")
+                    .characterEncoding(StandardCharsets.UTF_8)
+                    .contentType(MediaType.APPLICATION_JSON));
+        });
+        assertTrue(e.getCause().getLocalizedMessage().contains("must not be null"));
+        verifyNoInteractions(bookingService);
+    }
+
     @Test
     void getById() throws Exception {
         when(bookingService.getById(owner.getId(), booking.getId()))
@@ -166,7 +239,7 @@ public class BookingControllerTests {
     @Test
     void getAllByBookerId() throws Exception {
         when(bookingService.getAllByBookerId(booker.getId(), "ALL", 0, 10))
-                .thenReturn(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking)));
+                .thenReturn(new SliceImpl<>(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking))));
 
         mvc.perform(createRequestWithPagination(get("/bookings"),
                         booker.getId(),
@@ -174,6 +247,7 @@ public class BookingControllerTests {
                         "0",
                         "10"))
                 .andExpect(status().isOk())
+                .andExpect(header().string(SliceResponse.HAS_NEXT, "false"))
                 .andExpect(jsonPath("$.length()").value(2))
                 .andExpect(jsonPath("$[0].status", is(booking.getStatus().toString())))
                 .andExpect(jsonPath("$[1].status", is(notApproveBooking.getStatus().toString())));
@@ -182,7 +256,7 @@ public class BookingControllerTests {
     @Test
     void getAllByBookerIdWithoutParam() throws Exception {
         when(bookingService.getAllByBookerId(booker.getId(), "ALL", 0, 20))
-                .thenReturn(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking)));
+                .thenReturn(new SliceImpl<>(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking))));
 
         mvc.perform(get("/bookings")
                         .header("X-Sharer-User-Id", booker.getId()))
@@ -207,7 +281,7 @@ public class BookingControllerTests {
     @Test
     void getAllByOwnerId() throws Exception {
         when(bookingService.getAllByOwnerId(owner.getId(), "ALL", 0, 10))
-                .thenReturn(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking)));
+                .thenReturn(new SliceImpl<>(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking))));
 
         mvc.perform(createRequestWithPagination(get("/bookings/owner"),
                         owner.getId(),
@@ -235,7 +309,7 @@ public class BookingControllerTests {
     @Test
     void getAllByOwnerIdWithoutParam() throws Exception {
         when(bookingService.getAllByOwnerId(owner.getId(), "ALL", 0, 20))
-                .thenReturn(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking)));
+                .thenReturn(new SliceImpl<>(List.of(BookingMapper.toBookingDto(booking), BookingMapper.toBookingDto(notApproveBooking))));
 
         mvc.perform(get("/bookings/owner")
                         .header("X-Sharer-User-Id", owner.getId())
@@ -246,6 +320,81 @@ public class BookingControllerTests {
                 .andExpect(jsonPath("$[1].status", is(notApproveBooking.getStatus().toString())));
     }
 
+    @Test
+    void getPageByBookerId() throws Exception {
+        String cursor = IdCursor.encode(notApproveBooking.getId());
+        when(bookingService.getPageByBookerId(booker.getId(), "ALL", null, 2))
+                .thenReturn(BookingPageDto.builder()
+                        .bookings(List.of(BookingMapper.toBookingDto(booking),
+                                BookingMapper.toBookingDto(notApproveBooking)))
+                        .nextCursor(cursor)
+                        .build());
+
+        mvc.perform(get("/bookings")
+                        .header("X-Sharer-User-Id", booker.getId())
+                        .param("limit", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings.length()").value(2))
+                .andExpect(jsonPath("$.nextCursor", is(cursor)));
+    }
+
+    @Test
+    void getPageByOwnerId() throws Exception {
+        String cursor = IdCursor.encode(booking.getId());
+        when(bookingService.getPageByOwnerId(owner.getId(), "WAITING", cursor, 10))
+                .thenReturn(BookingPageDto.builder()
+                        .bookings(List.of(BookingMapper.toBookingDto(notApproveBooking)))
+                        .build());
+
+        mvc.perform(get("/bookings/owner")
+                        .header("X-Sharer-User-Id", owner.getId())
+                        .param("state", "WAITING")
+                        .param("afterId", cursor)
+                        .param("limit", "10"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.bookings.length()").value(1))
+                .andExpect(jsonPath("$.bookings[0].status", is(notApproveBooking.getStatus().toString())))
+                .andExpect(jsonPath("$.nextCursor").doesNotExist());
+    }
+
+    @Test
+    void getPageWithTooLargeLimitShouldFail() {
+        Exception e = assertThrows(NestedServletException.class, () -> {
+            mvc.perform(get("/bookings")
+                    .header("X-Sharer-User-Id", booker.getId())
+                    .param("limit", String.valueOf(Integer.MAX_VALUE)));
+        });
+        assertTrue(e.getCause().getLocalizedMessage().contains("must be less than or equal to 100"));
+        e = assertThrows(NestedServletException.class, () -> {
+            mvc.perform(get("/bookings/owner")
+                    .header("X-Sharer-User-Id", owner.getId())
+                    .param("limit", "101"));
+        });
+        assertTrue(e.getCause().getLocalizedMessage().contains("must be less than or equal to 100"));
+        verifyNoInteractions(bookingService);
+    }
+
+    @Test
+    void exportAllByOwnerId() throws Exception {
+        BookingDto first = BookingMapper.toBookingDto(booking);
+        BookingDto second = BookingMapper.toBookingDto(notApproveBooking);
+        doAnswer(invocation -> {
+            Consumer<BookingDto> consumer = invocation.getArgument(1);
+            consumer.accept(first);
+            consumer.accept(second);
+            return null;
+        }).when(bookingService).exportAllByOwnerId(eq(owner.getId()), any());
+
+        MvcResult result = mvc.perform(get("/bookings/owner/export")
+                        .header("X-Sharer-User-Id", owner.getId()))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        mvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andExpect(content().string(mapper.writeValueAsString(first) + "\n"
+                        + mapper.writeValueAsString(second) + "\n"));
+    }
+
     private MockHttpServletRequestBuilder createContentFromInputBookingDto(MockHttpServletRequestBuilder builder,
                                                                            InputBookingDto inputBookingDto,
                                                                            Long id) throws JsonProcessingException {
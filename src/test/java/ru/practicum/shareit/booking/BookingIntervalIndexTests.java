@@ -0,0 +1,223 @@
+package ru.practicum.shareit.booking;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.model.StatusType;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.exceptions.ValidationException;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.item.model.Item;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class BookingIntervalIndexTests {
+    @InjectMocks
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private BookingRepository bookingRepository;
+
+    private final LocalDateTime date = LocalDateTime.now().plusDays(1);
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("ItemName")
+            .available(true)
+            .build();
+    private final Booking booking = Booking.builder()
+            .id(1L)
+            .start(date)
+            .end(date.plusDays(2))
+            .item(item)
+            .status(StatusType.APPROVED)
+            .build();
+
+    @BeforeEach
+    void doBeforeEach() {
+        when(bookingRepository.findAllByStatusInAndEndAfter(anyCollection(), any())).thenReturn(List.of(booking));
+        bookingIntervalIndex.rebuild();
+    }
+
+    @Test
+    void reserveChecksOverlaps() {
+        assertTrue(isFree(1L, date.minusDays(1), date));
+        assertTrue(isFree(1L, date.plusDays(2), date.plusDays(3)));
+        assertTrue(isFree(2L, date, date.plusDays(1)));
+        assertFalse(isFree(1L, date.minusDays(1), date.plusHours(1)));
+        assertFalse(isFree(1L, date.plusHours(1), date.plusHours(2)));
+        assertFalse(isFree(1L, date.plusDays(1), date.plusDays(3)));
+        assertFalse(isFree(1L, date.minusDays(1), date.plusDays(3)));
+    }
+
+    @Test
+    void reserve() {
+        Booking newBooking = Booking.builder()
+                .start(date.plusDays(2))
+                .end(date.plusDays(3))
+                .item(item)
+                .status(StatusType.WAITING)
+                .build();
+
+        Booking saved = bookingIntervalIndex.reserve(newBooking, b -> {
+            b.setId(2L);
+            return b;
+        });
+        assertEquals(2L, saved.getId());
+        assertFalse(isFree(1L, date.plusDays(2), date.plusDays(3)));
+    }
+
+    @Test
+    void reserveOverlappingPeriodShouldThrowException() {
+        Booking newBooking = Booking.builder()
+                .start(date.plusDays(1))
+                .end(date.plusDays(3))
+                .item(item)
+                .status(StatusType.WAITING)
+                .build();
+
+        assertThrows(ValidationException.class, () -> bookingIntervalIndex.reserve(newBooking, b -> {
+            fail("Пересекающееся бронирование не должно сохраняться.");
+            return b;
+        }));
+    }
+
+    @Test
+    void removeReleasesPeriod() {
+        bookingIntervalIndex.remove(booking);
+        assertTrue(isFree(1L, date, date.plusDays(2)));
+    }
+
+    @Test
+    void longIntervalIsFoundBehindShorterOverlappingOnes() {
+        bookingIntervalIndex.put(Booking.builder()
+                .id(2L)
+                .start(date.plusDays(3))
+                .end(date.plusDays(10))
+                .item(item)
+                .build());
+        bookingIntervalIndex.put(Booking.builder()
+                .id(3L)
+                .start(date.plusDays(4))
+                .end(date.plusDays(5))
+                .item(item)
+                .build());
+
+        assertFalse(isFree(1L, date.plusDays(6), date.plusDays(7)));
+        assertTrue(isFree(1L, date.plusDays(10), date.plusDays(11)));
+    }
+
+    @Test
+    void removingLongIntervalKeepsOverlappingOnes() {
+        Booking longBooking = Booking.builder()
+                .id(2L)
+                .start(date.plusDays(3))
+                .end(date.plusDays(10))
+                .item(item)
+                .build();
+        bookingIntervalIndex.put(longBooking);
+        bookingIntervalIndex.put(Booking.builder()
+                .id(3L)
+                .start(date.plusDays(4))
+                .end(date.plusDays(5))
+                .item(item)
+                .build());
+
+        bookingIntervalIndex.remove(longBooking);
+
+        assertTrue(isFree(1L, date.plusDays(3), date.plusDays(4)));
+        assertFalse(isFree(1L, date.plusDays(4), date.plusDays(5)));
+        assertTrue(isFree(1L, date.plusDays(5), date.plusDays(10)));
+        assertFalse(isFree(1L, date.plusDays(1), date.plusDays(3)));
+    }
+
+    @Test
+    void removeWaitsForCommit() {
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            bookingIntervalIndex.remove(booking);
+            assertFalse(isFree(1L, date, date.plusDays(2)));
+
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(isFree(1L, date, date.plusDays(2)));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void removeUserDropsCascadedSlots() {
+        Item otherItem = Item.builder()
+                .id(2L)
+                .name("OtherItem")
+                .available(true)
+                .build();
+        bookingIntervalIndex.put(Booking.builder()
+                .id(5L)
+                .start(date)
+                .end(date.plusDays(2))
+                .item(otherItem)
+                .build());
+        when(bookingRepository.findAllByBookerIdAndStatusInAndEndAfter(eq(7L), anyCollection(), any()))
+                .thenReturn(List.of(booking));
+
+        bookingIntervalIndex.removeUser(7L, List.of(2L));
+
+        assertTrue(isFree(1L, date, date.plusDays(2)));
+        assertTrue(isFree(2L, date, date.plusDays(2)));
+    }
+
+    @Test
+    void removeFinishedDropsEmptyItems() {
+        bookingIntervalIndex.put(Booking.builder()
+                .id(5L)
+                .start(LocalDateTime.now().minusDays(2))
+                .end(LocalDateTime.now().minusDays(1))
+                .item(Item.builder().id(2L).build())
+                .build());
+        assertEquals(2, bookingIntervalIndex.getItemCount());
+
+        bookingIntervalIndex.removeFinished();
+
+        assertEquals(1, bookingIntervalIndex.getItemCount());
+        assertFalse(isFree(1L, date, date.plusDays(2)));
+    }
+
+    @Test
+    void reserveDropsItemLeftEmpty() {
+        bookingIntervalIndex.remove(booking);
+
+        assertTrue(isFree(2L, date, date.plusDays(1)));
+        assertEquals(0, bookingIntervalIndex.getItemCount());
+    }
+
+    private boolean isFree(Long itemId, LocalDateTime start, LocalDateTime end) {
+        Booking candidate = Booking.builder()
+                .start(start)
+                .end(end)
+                .item(Item.builder().id(itemId).build())
+                .build();
+        try {
+            bookingIntervalIndex.reserve(candidate, b -> {
+                throw new IllegalStateException();
+            });
+            return false;
+        } catch (IllegalStateException e) {
+            return true;
+        } catch (ValidationException e) {
+            return false;
+        }
+    }
+}
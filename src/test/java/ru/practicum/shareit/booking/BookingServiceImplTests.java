@@ -5,28 +5,45 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import ru.practicum.shareit.booking.dto.BookingDto;
+import ru.practicum.shareit.booking.dto.BookingPageDto;
+import ru.practicum.shareit.booking.dto.BookingStatusUpdateDto;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.StatusType;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.booking.service.BookingServiceImpl;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.pagination.IdCursor;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 
+import javax.persistence.EntityManager;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -34,11 +51,19 @@ public class BookingServiceImplTests {
     @InjectMocks
     private BookingServiceImpl bookingService;
     @Mock
-    private UserRepository userRepository;
+    private UserResolver userResolver;
     @Mock
     private ItemRepository itemRepository;
     @Mock
     private BookingRepository bookingRepository;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private EntityManager entityManager;
+    @Mock
+    private ItemDetailCache itemDetailCache;
+    @Mock
+    private ItemBookingPointers itemBookingPointers;
 
     private final LocalDateTime date = LocalDateTime.now();
     private final User owner = User.builder()
@@ -88,9 +113,12 @@ public class BookingServiceImplTests {
 
     @Test
     void addBooking() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(userResolver.getUser(anyLong())).thenReturn(booker);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
         when(bookingRepository.save(any())).thenReturn(booking);
+        when(bookingIntervalIndex.reserve(any(), any()))
+                .thenAnswer(invocation -> invocation.<UnaryOperator<Booking>>getArgument(1)
+                        .apply(invocation.getArgument(0)));
 
         BookingDto bookingCreated = bookingService.addBooking(2L, bookingInputDto);
         assertNotEquals(bookingCreated, null);
@@ -100,12 +128,25 @@ public class BookingServiceImplTests {
         assertEquals(booking.getEnd(), bookingCreated.getEnd());
 
         verify(bookingRepository, times(1)).save(any());
+        verify(itemDetailCache, times(1)).evict(item.getId());
+        verify(itemBookingPointers, times(1)).bookingAdded(booking);
+    }
+
+    @Test
+    void addBookingWhenPeriodIsTakenShouldThrowException() {
+        when(userResolver.getUser(anyLong())).thenReturn(booker);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
+        when(bookingIntervalIndex.reserve(any(), any()))
+                .thenThrow(new ValidationException("Предмет c id=1 уже забронирован на указанный период."));
+
+        assertThrows(ValidationException.class, () -> bookingService.addBooking(2L, bookingInputDto));
+        verify(bookingRepository, never()).save(any());
     }
 
     @Test
     void addBookingWhenItemUnknownShouldThrowException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userResolver.getUser(anyLong())).thenReturn(booker);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.addBooking(2L, bookingInputDto));
@@ -114,7 +155,8 @@ public class BookingServiceImplTests {
 
     @Test
     void addBookingWhenBookerUnknownShouldThrowException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userResolver.getUser(anyLong()))
+                .thenThrow(new ObjectNotFoundException("Пользователь c id=2 не найден."));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.addBooking(2L, bookingInputDto));
@@ -123,8 +165,8 @@ public class BookingServiceImplTests {
 
     @Test
     void addBookingWhenBookerIsOwnerShouldThrowException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(userResolver.getUser(anyLong())).thenReturn(owner);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(item));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.addBooking(1L, bookingInputDto));
@@ -133,8 +175,8 @@ public class BookingServiceImplTests {
 
     @Test
     void addBookingWhenItemNotAvailableShouldThrowException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(anotherItem));
+        when(userResolver.getUser(anyLong())).thenReturn(booker);
+        when(itemRepository.findByIdForUpdate(anyLong())).thenReturn(Optional.of(anotherItem));
 
         BadRequestException exception = assertThrows(BadRequestException.class,
                 () -> bookingService.addBooking(1L, bookingInputDto));
@@ -143,8 +185,9 @@ public class BookingServiceImplTests {
 
     @Test
     void approveBooking() {
+        when(bookingRepository.updateStatusIfWaiting(2L, 1L, StatusType.APPROVED)).thenReturn(1);
+        notApproveBooking.setStatus(StatusType.APPROVED);
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(notApproveBooking));
-        when(bookingRepository.save(any())).thenReturn(notApproveBooking);
 
         BookingDto bookingApproved = bookingService.approveBooking(1L, 2L, true);
         assertEquals(notApproveBooking.getId(), bookingApproved.getId());
@@ -153,7 +196,21 @@ public class BookingServiceImplTests {
         assertEquals(notApproveBooking.getEnd(), bookingApproved.getEnd());
         assertEquals(StatusType.APPROVED, bookingApproved.getStatus());
 
-        verify(bookingRepository, times(1)).save(any());
+        verify(bookingRepository, times(1)).updateStatusIfWaiting(2L, 1L, StatusType.APPROVED);
+        verify(bookingRepository, never()).save(any());
+        verify(bookingIntervalIndex, never()).remove(any());
+    }
+
+    @Test
+    void rejectBookingReleasesInterval() {
+        when(bookingRepository.updateStatusIfWaiting(2L, 1L, StatusType.REJECTED)).thenReturn(1);
+        notApproveBooking.setStatus(StatusType.REJECTED);
+        when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(notApproveBooking));
+
+        BookingDto bookingRejected = bookingService.approveBooking(1L, 2L, false);
+        assertEquals(StatusType.REJECTED, bookingRejected.getStatus());
+
+        verify(bookingIntervalIndex, times(1)).remove(notApproveBooking);
     }
 
     @Test
@@ -183,6 +240,46 @@ public class BookingServiceImplTests {
         assertEquals("Бронирование не нуждается в изменении статуса.", exception.getMessage());
     }
 
+    @Test
+    void approveBookings() {
+        when(bookingRepository.findAllByIdInForUpdate(Set.of(1L, 2L, 3L)))
+                .thenReturn(List.of(booking, notApproveBooking));
+
+        List<BookingStatusUpdateDto> results = bookingService.approveBookings(1L, List.of(2L, 1L, 3L), false);
+        assertEquals(3, results.size());
+        assertEquals(StatusType.REJECTED, results.get(0).getStatus());
+        assertNull(results.get(0).getError());
+        assertEquals(StatusType.APPROVED, results.get(1).getStatus());
+        assertEquals("Бронирование не нуждается в изменении статуса.", results.get(1).getError());
+        assertEquals("Бронирование c id=3не найдено.", results.get(2).getError());
+
+        verify(bookingRepository, times(1)).updateStatus(Set.of(2L), StatusType.REJECTED);
+        verify(bookingIntervalIndex, times(1)).remove(notApproveBooking);
+    }
+
+    @Test
+    void approveBookingsByNonOwner() {
+        when(bookingRepository.findAllByIdInForUpdate(Set.of(2L)))
+                .thenReturn(List.of(notApproveBooking));
+
+        List<BookingStatusUpdateDto> results = bookingService.approveBookings(2L, List.of(2L), true);
+        assertEquals(1, results.size());
+        assertEquals("Пользователь c id=2 не является хозяином предмета.", results.get(0).getError());
+
+        verify(bookingRepository, never()).updateStatus(any(), any());
+    }
+
+    @Test
+    void exportAllByOwnerId() {
+        when(bookingRepository.streamAllByOwnerId(1L)).thenReturn(Stream.of(booking, notApproveBooking));
+
+        List<BookingDto> exported = new ArrayList<>();
+        bookingService.exportAllByOwnerId(1L, exported::add);
+        assertEquals(2, exported.size());
+        assertEquals(booking.getId(), exported.get(0).getId());
+        assertEquals(notApproveBooking.getId(), exported.get(1).getId());
+    }
+
     @Test
     void getBookingByIdByOwner() {
         when(bookingRepository.findById(anyLong())).thenReturn(Optional.of(booking));
@@ -228,9 +325,9 @@ public class BookingServiceImplTests {
     @Test
     void getAllByBooker() {
         when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, notApproveBooking)));
+                .thenReturn(new SliceImpl<>(toViews(booking, notApproveBooking)));
 
-        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "ALL", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "ALL", 0, 2).getContent();
         assertNotEquals(bookings, null);
         assertEquals(bookings.size(), 2);
         assertEquals(bookings.get(0).getStatus(), StatusType.APPROVED);
@@ -242,7 +339,7 @@ public class BookingServiceImplTests {
     @Test
     void getAllByBookerWithoutBookings() {
         when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(Collections.emptyList()));
+                .thenReturn(new SliceImpl<BookingView>(Collections.emptyList()));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.getAllByBookerId(1L, "ALL", 0, 2));
@@ -251,15 +348,17 @@ public class BookingServiceImplTests {
 
     @Test
     void getAllByBookerWithStateWaiting() {
-        when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, notApproveBooking)));
+        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), eq(StatusType.WAITING), any()))
+                .thenReturn(new SliceImpl<>(toViews(notApproveBooking)));
 
-        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "WAITING", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "WAITING", 0, 2).getContent();
         assertNotEquals(bookings, null);
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), StatusType.WAITING);
 
-        verify(bookingRepository, times(1)).findAllByBookerId(anyLong(), any());
+        verify(bookingRepository, times(1))
+                .findAllByBookerIdAndStatus(anyLong(), eq(StatusType.WAITING), any());
+        verify(bookingRepository, never()).findAllByBookerId(anyLong(), any());
     }
 
     @Test
@@ -272,10 +371,10 @@ public class BookingServiceImplTests {
                 .booker(booker)
                 .status(StatusType.REJECTED)
                 .build();
-        when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, rejectedBooking)));
+        when(bookingRepository.findAllByBookerIdAndStatus(anyLong(), eq(StatusType.REJECTED), any()))
+                .thenReturn(new SliceImpl<>(toViews(rejectedBooking)));
 
-        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "REJECTED", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "REJECTED", 0, 2).getContent();
         assertNotEquals(bookings, null);
         assertEquals(bookings.size(), 1);
         assertEquals(bookings.get(0).getStatus(), StatusType.REJECTED);
@@ -283,24 +382,24 @@ public class BookingServiceImplTests {
 
     @Test
     void getAllByBookerWithStatePast() {
-        when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, notApproveBooking)));
+        when(bookingRepository.findPastByBookerId(anyLong(), any(), any()))
+                .thenReturn(new SliceImpl<>(toViews(booking, notApproveBooking)));
 
-        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "PAST", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "PAST", 0, 2).getContent();
         assertNotEquals(bookings, null);
         assertEquals(bookings.size(), 2);
         assertTrue(bookings.get(0).getEnd().isBefore(date));
         assertTrue(bookings.get(1).getEnd().isBefore(date));
 
-        verify(bookingRepository, times(1)).findAllByBookerId(anyLong(), any());
+        verify(bookingRepository, times(1)).findPastByBookerId(anyLong(), any(), any());
     }
 
     @Test
     void getAllByBookerWithStateFuture() {
-        when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, notApproveBooking)));
+        when(bookingRepository.findFutureByBookerId(anyLong(), any(), any()))
+                .thenReturn(new SliceImpl<BookingView>(Collections.emptyList()));
 
-        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "FUTURE", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "FUTURE", 0, 2).getContent();
         assertNotEquals(bookings, null);
         assertEquals(bookings.size(), 0);
     }
@@ -315,10 +414,10 @@ public class BookingServiceImplTests {
                 .booker(booker)
                 .status(StatusType.APPROVED)
                 .build();
-        when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, currentBooking)));
+        when(bookingRepository.findCurrentByBookerId(anyLong(), any(), any()))
+                .thenReturn(new SliceImpl<>(toViews(currentBooking)));
 
-        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "CURRENT", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByBookerId(2L, "CURRENT", 0, 2).getContent();
         assertNotEquals(bookings, null);
         assertEquals(bookings.size(), 1);
         assertTrue(bookings.get(0).getEnd().isAfter(date));
@@ -326,20 +425,19 @@ public class BookingServiceImplTests {
 
     @Test
     void getAllByBookerWithStateUnknownShouldThrowException() {
-        when(bookingRepository.findAllByBookerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, notApproveBooking)));
-
         BadRequestException exception = assertThrows(BadRequestException.class,
                 () -> bookingService.getAllByBookerId(2L, "OLD", 0, 2));
         assertEquals("Unknown state: UNSUPPORTED_STATUS", exception.getMessage());
+
+        verifyNoInteractions(bookingRepository);
     }
 
     @Test
     void getAllByOwnerId() {
         when(bookingRepository.getAllByOwnerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(List.of(booking, notApproveBooking)));
+                .thenReturn(new SliceImpl<>(toViews(booking, notApproveBooking)));
 
-        List<BookingDto> bookings = bookingService.getAllByOwnerId(1L, "ALL", 0, 2);
+        List<BookingDto> bookings = bookingService.getAllByOwnerId(1L, "ALL", 0, 2).getContent();
         assertNotEquals(bookings, null);
         assertEquals(bookings.size(), 2);
         assertEquals(bookings.get(0).getStatus(), StatusType.APPROVED);
@@ -351,10 +449,80 @@ public class BookingServiceImplTests {
     @Test
     void getAllByOwnerWithoutItemsShouldThrowException() {
         when(bookingRepository.getAllByOwnerId(anyLong(), any()))
-                .thenReturn(new PageImpl<Booking>(Collections.emptyList()));
+                .thenReturn(new SliceImpl<BookingView>(Collections.emptyList()));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> bookingService.getAllByOwnerId(2L, "ALL", 0, 2));
         assertEquals("Бронирований не найдено.", exception.getMessage());
     }
-}
\ No newline at end of file
+
+    @Test
+    void getAllByOwnerWithStateWaiting() {
+        when(bookingRepository.getAllByOwnerIdAndStatus(anyLong(), eq(StatusType.WAITING), any()))
+                .thenReturn(new SliceImpl<>(toViews(notApproveBooking)));
+
+        List<BookingDto> bookings = bookingService.getAllByOwnerId(1L, "WAITING", 0, 2).getContent();
+        assertEquals(bookings.size(), 1);
+        assertEquals(bookings.get(0).getStatus(), StatusType.WAITING);
+
+        verify(bookingRepository, never()).getAllByOwnerId(anyLong(), any());
+    }
+
+    @Test
+    void getAllByOwnerWithStatePastWithoutBookings() {
+        when(bookingRepository.getPastByOwnerId(anyLong(), any(), any()))
+                .thenReturn(new SliceImpl<BookingView>(Collections.emptyList()));
+
+        List<BookingDto> bookings = bookingService.getAllByOwnerId(1L, "PAST", 0, 2).getContent();
+        assertEquals(bookings.size(), 0);
+    }
+
+    @Test
+    void getPageByBookerIdFirstPage() {
+        when(bookingRepository.findAllByBookerIdBefore(2L, Long.MAX_VALUE, PageRequest.of(0, 2)))
+                .thenReturn(toViews(notApproveBooking, booking));
+
+        BookingPageDto page = bookingService.getPageByBookerId(2L, "ALL", null, 1);
+        assertEquals(1, page.getBookings().size());
+        assertEquals(notApproveBooking.getId(), page.getBookings().get(0).getId());
+        assertEquals(notApproveBooking.getId(), IdCursor.decode(page.getNextCursor()));
+    }
+
+    @Test
+    void getPageByBookerIdLastPage() {
+        when(bookingRepository.findAllByBookerIdAndStatusBefore(2L, 2L, StatusType.WAITING, PageRequest.of(0, 11)))
+                .thenReturn(Collections.emptyList());
+
+        BookingPageDto page = bookingService.getPageByBookerId(2L, "WAITING", IdCursor.encode(2L), 10);
+        assertEquals(0, page.getBookings().size());
+        assertNull(page.getNextCursor());
+    }
+
+    @Test
+    void getPageByOwnerIdWithStatePast() {
+        when(bookingRepository.getPastByOwnerIdBefore(anyLong(), anyLong(), any(), any()))
+                .thenReturn(toViews(booking));
+
+        BookingPageDto page = bookingService.getPageByOwnerId(1L, "PAST", null, 5);
+        assertEquals(1, page.getBookings().size());
+        assertNull(page.getNextCursor());
+
+        verify(bookingRepository, never()).getPastByOwnerId(anyLong(), any(), any());
+    }
+
+    @Test
+    void getPageByOwnerIdWithInvalidCursorShouldThrowException() {
+        BadRequestException exception = assertThrows(BadRequestException.class,
+                () -> bookingService.getPageByOwnerId(1L, "ALL", "@@@", 5));
+        assertEquals("Неверный курсор: @@@", exception.getMessage());
+    }
+
+    private List<BookingView> toViews(Booking... bookings) {
+        return Arrays.stream(bookings)
+                .map(b -> new BookingView(b.getId(), b.getStart(), b.getEnd(), b.getStatus(),
+                        b.getItem().getId(), b.getItem().getName(), b.getItem().getDescription(),
+                        b.getItem().getAvailable(), null,
+                        b.getBooker().getId(), b.getBooker().getName(), b.getBooker().getEmail()))
+                .collect(Collectors.toList());
+    }
+}
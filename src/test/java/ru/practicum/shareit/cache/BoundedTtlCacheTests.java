@@ -0,0 +1,86 @@
+package ru.practicum.shareit.cache;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class BoundedTtlCacheTests {
+    @Test
+    void putAndGet() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(10, 300);
+
+        cache.put(1L, "one", cache.generation());
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(1, cache.size());
+    }
+
+    @Test
+    void leastRecentlyUsedEntryIsDroppedWhenFull() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(2, 300);
+
+        cache.put(1L, "one", cache.generation());
+        cache.put(2L, "two", cache.generation());
+        cache.get(1L);
+        cache.put(3L, "three", cache.generation());
+
+        assertEquals("one", cache.get(1L));
+        assertNull(cache.get(2L));
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    void expiredEntryIsNotReturned() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(10, 0);
+
+        cache.put(1L, "one", cache.generation());
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void removeExpiredDropsExpiredEntries() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(10, 0);
+
+        cache.put(1L, "one", cache.generation());
+        cache.put(2L, "two", cache.generation());
+
+        assertEquals(2, cache.removeExpired());
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void valueLoadedBeforeInvalidationIsNotStored() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(10, 300);
+        long loadedAt = cache.generation();
+
+        cache.invalidate(2L);
+        cache.put(1L, "one", loadedAt);
+
+        assertNull(cache.get(1L));
+    }
+
+    @Test
+    void invalidateAllDropsEveryEntry() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(10, 300);
+        cache.put(1L, "one", cache.generation());
+        cache.put(2L, "two", cache.generation());
+
+        cache.invalidateAll();
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void hitsAndMissesAreCounted() {
+        BoundedTtlCache<Long, String> cache = new BoundedTtlCache<>(10, 300);
+
+        cache.recordHit();
+        cache.recordHit();
+        cache.recordMiss();
+
+        assertEquals(2, cache.getHits());
+        assertEquals(1, cache.getMisses());
+    }
+}
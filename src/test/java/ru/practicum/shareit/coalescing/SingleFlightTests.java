@@ -0,0 +1,123 @@
+package ru.practicum.shareit.coalescing;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SingleFlightTests {
+    private static final int CALLERS = 64;
+
+    private final SingleFlight singleFlight = new SingleFlight();
+    private final ExecutorService executor = Executors.newFixedThreadPool(CALLERS);
+    private final AtomicInteger computations = new AtomicInteger();
+
+    @AfterEach
+    void shutdown() {
+        executor.shutdownNow();
+    }
+
+    /**
+     * Holds the computation open until every other caller has joined it.
+     */
+    private <T> Supplier<T> computation(Supplier<T> result) {
+        return () -> {
+            computations.incrementAndGet();
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.getShared() < CALLERS - 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return result.get();
+        };
+    }
+
+    private <T> List<Future<T>> callConcurrently(Object key, Supplier<T> computation) throws InterruptedException {
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<T>> results = new ArrayList<>();
+        for (int i = 0; i < CALLERS; i++) {
+            results.add(executor.submit(() -> {
+                start.await();
+                return singleFlight.execute(key, computation);
+            }));
+        }
+        start.countDown();
+        return results;
+    }
+
+    @Test
+    void concurrentCallsShareOneComputation() throws Exception {
+        Object value = new Object();
+
+        List<Future<Object>> results = callConcurrently("key", computation(() -> value));
+
+        for (Future<Object> result : results) {
+            assertSame(value, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, computations.get());
+        assertEquals(CALLERS, singleFlight.getCalls());
+        assertEquals(CALLERS - 1, singleFlight.getShared());
+        assertEquals((double) (CALLERS - 1) / CALLERS, singleFlight.getDedupeRatio());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void exceptionReachesEveryCaller() throws Exception {
+        List<Future<Object>> results = callConcurrently("key", computation(() -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        for (Future<Object> result : results) {
+            ExecutionException e = assertThrows(ExecutionException.class, () -> result.get(10, TimeUnit.SECONDS));
+            assertInstanceOf(IllegalStateException.class, e.getCause());
+        }
+        assertEquals(1, computations.get());
+        assertEquals(0, singleFlight.getInFlight());
+    }
+
+    @Test
+    void sequentialCallsComputeAgain() {
+        singleFlight.execute("key", () -> computations.incrementAndGet());
+        singleFlight.execute("key", () -> computations.incrementAndGet());
+
+        assertEquals(2, computations.get());
+        assertEquals(0, singleFlight.getShared());
+        assertEquals(0, singleFlight.getDedupeRatio());
+    }
+
+    @Test
+    void differentKeysAreNotShared() throws Exception {
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Integer> first = executor.submit(() -> singleFlight.execute("first", () -> {
+            started.countDown();
+            awaitQuietly(release);
+            return 1;
+        }));
+        started.await();
+
+        Integer second = singleFlight.execute("second", () -> 2);
+        assertEquals(2, second);
+        release.countDown();
+        assertEquals(1, first.get(10, TimeUnit.SECONDS));
+        assertEquals(0, singleFlight.getShared());
+    }
+
+    private static void awaitQuietly(CountDownLatch latch) {
+        try {
+            latch.await();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
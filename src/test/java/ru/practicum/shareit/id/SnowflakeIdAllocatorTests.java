@@ -0,0 +1,116 @@
+package ru.practicum.shareit.id;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Instant;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SnowflakeIdAllocatorTests {
+    private static final long JS_MAX_SAFE_INTEGER = (1L << 53) - 1;
+    private static final long EPOCH_SECOND = Instant.parse("2022-01-01T00:00:00Z").getEpochSecond();
+
+    private final AtomicLong clock = new AtomicLong(Instant.parse("2024-05-01T00:00:00Z").getEpochSecond());
+    private final Runnable noPause = () -> {
+    };
+
+    @Test
+    void idsAreUniqueAndIncreasing() {
+        AtomicLong calls = new AtomicLong();
+        SnowflakeIdAllocator allocator = new SnowflakeIdAllocator(3,
+                () -> clock.get() + calls.incrementAndGet() / 50_000, noPause);
+        Set<Long> ids = new HashSet<>();
+        long previous = 0;
+        for (int i = 0; i < 200_000; i++) {
+            long id = allocator.nextId();
+            assertTrue(id > previous);
+            assertTrue(ids.add(id));
+            previous = id;
+        }
+        assertTrue(previous <= JS_MAX_SAFE_INTEGER);
+    }
+
+    @Test
+    void idsKeepIncreasingWhenClockGoesBack() {
+        SnowflakeIdAllocator allocator = startedAllocator(0);
+        long first = allocator.nextId();
+        clock.addAndGet(-10);
+        assertTrue(allocator.nextId() > first);
+    }
+
+    @Test
+    void restartWithinSameSecondWaitsForNextSecond() {
+        SnowflakeIdAllocator previousRun = startedAllocator(0);
+        long lastOfPreviousRun = previousRun.nextId();
+        AtomicLong pauses = new AtomicLong();
+        SnowflakeIdAllocator allocator = new SnowflakeIdAllocator(0, clock::get, () -> {
+            if (pauses.incrementAndGet() == 2) {
+                clock.incrementAndGet();
+            }
+        });
+
+        long first = allocator.nextId();
+        assertTrue(first > lastOfPreviousRun);
+        assertEquals(2, pauses.get());
+    }
+
+    @Test
+    void clockGoingBackAfterStartupWaitsUntilStartupSecondPasses() {
+        long start = clock.get();
+        AtomicLong pauses = new AtomicLong();
+        clock.addAndGet(-5);
+        SnowflakeIdAllocator allocator = new SnowflakeIdAllocator(0, clock::get, () -> {
+            pauses.incrementAndGet();
+            clock.incrementAndGet();
+        });
+        clock.set(start - 7);
+
+        assertEquals(start - 4 - EPOCH_SECOND, secondOf(allocator.nextId()));
+        assertEquals(3, pauses.get());
+    }
+
+    @Test
+    void exhaustedSequenceWaitsForNextSecond() {
+        AtomicLong pauses = new AtomicLong();
+        SnowflakeIdAllocator allocator = new SnowflakeIdAllocator(0, clock::get, () -> {
+            if (pauses.incrementAndGet() == 3) {
+                clock.incrementAndGet();
+            }
+        });
+        long start = clock.incrementAndGet();
+        for (int i = 0; i < 1 << SnowflakeIdAllocator.SEQUENCE_BITS; i++) {
+            assertEquals(start - EPOCH_SECOND, secondOf(allocator.nextId()));
+        }
+        assertEquals(0, pauses.get());
+
+        assertEquals(start + 1 - EPOCH_SECOND, secondOf(allocator.nextId()));
+        assertEquals(3, pauses.get());
+    }
+
+    @Test
+    void nodeIdIsEncoded() {
+        long first = startedAllocator(1).nextId();
+        long second = startedAllocator(2).nextId();
+        assertNotEquals(first, second);
+        assertEquals(2, (second >> SnowflakeIdAllocator.SEQUENCE_BITS) & SnowflakeIdAllocator.MAX_NODE_ID);
+    }
+
+    @Test
+    void invalidNodeIdShouldThrowException() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new SnowflakeIdAllocator(SnowflakeIdAllocator.MAX_NODE_ID + 1));
+    }
+
+    private SnowflakeIdAllocator startedAllocator(int nodeId) {
+        SnowflakeIdAllocator allocator = new SnowflakeIdAllocator(nodeId, clock::get, noPause);
+        clock.incrementAndGet();
+        return allocator;
+    }
+
+    private static long secondOf(long id) {
+        return id >> (SnowflakeIdAllocator.NODE_BITS + SnowflakeIdAllocator.SEQUENCE_BITS);
+    }
+}
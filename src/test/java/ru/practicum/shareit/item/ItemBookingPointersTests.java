@@ -0,0 +1,180 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.booking.dto.BookingPointer;
+import ru.practicum.shareit.booking.model.Booking;
+import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.item.model.BookingPointerSweep;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.BookingPointerSweepRepository;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemBookingPointersTests {
+    @InjectMocks
+    private ItemBookingPointers itemBookingPointers;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private BookingRepository bookingRepository;
+    @Mock
+    private ItemDetailCache itemDetailCache;
+    @Mock
+    private BookingPointerSweepRepository sweepRepository;
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final LocalDateTime date = LocalDateTime.now();
+    private final Item item = Item.builder()
+            .id(1L)
+            .name("ItemName")
+            .available(true)
+            .build();
+
+    @Test
+    void futureBookingMovesNextPointer() {
+        Booking booking = Booking.builder()
+                .id(3L)
+                .start(date.plusDays(1))
+                .end(date.plusDays(2))
+                .item(item)
+                .build();
+
+        itemBookingPointers.bookingAdded(booking);
+
+        verify(itemRepository, times(1)).updateNextBookingIfEarlier(1L, 3L, booking.getStart());
+        verify(itemRepository, never()).updateLastBookingIfLater(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void pastBookingMovesLastPointer() {
+        Booking booking = Booking.builder()
+                .id(3L)
+                .start(date.minusDays(2))
+                .end(date.minusDays(1))
+                .item(item)
+                .build();
+
+        itemBookingPointers.bookingAdded(booking);
+
+        verify(itemRepository, times(1)).updateLastBookingIfLater(1L, 3L, booking.getEnd());
+        verify(itemRepository, never()).updateNextBookingIfEarlier(anyLong(), anyLong(), any());
+    }
+
+    @Test
+    void currentBookingLeavesPointersToSweep() {
+        Booking booking = Booking.builder()
+                .id(3L)
+                .start(date.minusDays(1))
+                .end(date.plusDays(1))
+                .item(item)
+                .build();
+
+        itemBookingPointers.bookingAdded(booking);
+
+        verifyNoInteractions(itemRepository);
+    }
+
+    @Test
+    void sweepRecomputesItemsWithPassedBoundaries() {
+        runTransactionsInline();
+        when(sweepRepository.findById(BookingPointerSweep.ID))
+                .thenReturn(Optional.of(new BookingPointerSweep(BookingPointerSweep.ID, date.minusMinutes(1))));
+        when(bookingRepository.findItemIdsWithBoundaryBetween(any(), any())).thenReturn(List.of(1L, 2L));
+        when(bookingRepository.findLastBookings(eq(List.of(1L, 2L)), any()))
+                .thenReturn(List.of(new BookingPointer(1L, 10L), new BookingPointer(2L, 20L)));
+        when(bookingRepository.findNextBookings(eq(List.of(1L, 2L)), any()))
+                .thenReturn(List.of(new BookingPointer(1L, 11L)));
+
+        itemBookingPointers.sweep();
+
+        verify(itemRepository, times(1)).updateBookingPointers(1L, 10L, 11L);
+        verify(itemRepository, times(1)).updateBookingPointers(2L, 20L, null);
+        verify(itemDetailCache, times(1)).evict(1L);
+        verify(itemDetailCache, times(1)).evict(2L);
+        verify(sweepRepository, times(1)).advance(eq(BookingPointerSweep.ID), any());
+    }
+
+    @Test
+    void sweepStartsFromStoredProgress() {
+        runTransactionsInline();
+        LocalDateTime sweptUntil = date.minusMinutes(1);
+        when(sweepRepository.findById(BookingPointerSweep.ID))
+                .thenReturn(Optional.of(new BookingPointerSweep(BookingPointerSweep.ID, sweptUntil)));
+        when(bookingRepository.findItemIdsWithBoundaryBetween(any(), any())).thenReturn(List.of());
+
+        itemBookingPointers.sweep();
+
+        verify(bookingRepository, times(1)).findItemIdsWithBoundaryBetween(eq(sweptUntil), any());
+        verify(bookingRepository, never()).findLastBookings(any(), any());
+        verify(sweepRepository, times(1)).advance(eq(BookingPointerSweep.ID), any());
+    }
+
+    @Test
+    void sweepCommitsEachBatch() {
+        runTransactionsInline();
+        List<Long> itemIds = LongStream.rangeClosed(1, 501).boxed().collect(Collectors.toList());
+        when(sweepRepository.findById(BookingPointerSweep.ID))
+                .thenReturn(Optional.of(new BookingPointerSweep(BookingPointerSweep.ID, date.minusMinutes(1))));
+        when(bookingRepository.findItemIdsWithBoundaryBetween(any(), any())).thenReturn(itemIds);
+
+        itemBookingPointers.sweep();
+
+        verify(transactionTemplate, times(3)).executeWithoutResult(any());
+        verify(bookingRepository, times(2)).findLastBookings(any(), any());
+        verify(itemRepository, times(501)).updateBookingPointers(anyLong(), any(), any());
+    }
+
+    @Test
+    void sweepEvictsItemsAlreadyRecomputedByAnotherInstance() {
+        when(sweepRepository.findById(BookingPointerSweep.ID))
+                .thenReturn(Optional.of(new BookingPointerSweep(BookingPointerSweep.ID, date.plusMinutes(1))));
+        when(bookingRepository.findItemIdsWithBoundaryBetween(any(), any())).thenReturn(List.of(1L));
+
+        itemBookingPointers.sweep();
+
+        verify(itemDetailCache, times(1)).evict(1L);
+        verify(itemRepository, never()).updateBookingPointers(anyLong(), any(), any());
+        verify(sweepRepository, never()).advance(any(), any());
+    }
+
+    @Test
+    void recomputeUpdatesAndEvictsItems() {
+        when(bookingRepository.findLastBookings(eq(List.of(1L)), any())).thenReturn(List.of());
+        when(bookingRepository.findNextBookings(eq(List.of(1L)), any()))
+                .thenReturn(List.of(new BookingPointer(1L, 11L)));
+
+        itemBookingPointers.recompute(List.of(1L));
+
+        verify(itemRepository, times(1)).updateBookingPointers(1L, null, 11L);
+        verify(itemDetailCache, times(1)).evict(1L);
+        verifyNoInteractions(transactionTemplate);
+    }
+
+    private void runTransactionsInline() {
+        doAnswer(invocation -> {
+            invocation.<Consumer<TransactionStatus>>getArgument(0).accept(null);
+            return null;
+        }).when(transactionTemplate).executeWithoutResult(any());
+    }
+}
@@ -1,6 +1,8 @@
 package ru.practicum.shareit.item;
 
 import lombok.RequiredArgsConstructor;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -9,6 +11,7 @@ import ru.practicum.shareit.booking.dto.BookingDto;
 import ru.practicum.shareit.booking.dto.InputBookingDto;
 import ru.practicum.shareit.booking.service.BookingService;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.dto.CommentPageDto;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
@@ -34,7 +37,7 @@ import static org.hamcrest.Matchers.nullValue;
 
 @Transactional
 @SpringBootTest(
-        properties = "db.name=test",
+        properties = {"db.name=test", "spring.jpa.properties.hibernate.generate_statistics=true"},
         webEnvironment = SpringBootTest.WebEnvironment.NONE)
 @RequiredArgsConstructor(onConstructor_ = @Autowired)
 public class ItemControllerIntegrationTest {
@@ -94,6 +97,25 @@ public class ItemControllerIntegrationTest {
         assertThat(createdItemFromGet.getDescription(), equalTo(item.getDescription()));
     }
 
+    @Test
+    void searchItemsWithShortQuery() {
+        UserDto userCreated = userService.createUser(UserMapper.toUserDto(owner));
+        ItemInputDto createdItem = itemService.createItem(ItemMapper.toItemDto(item), userCreated.getId());
+        itemService.createItem(ItemInputDto.builder()
+                .name("Drill")
+                .description("100% power")
+                .available(true)
+                .build(), userCreated.getId());
+
+        List<ItemInputDto> found = itemService.searchItems("mN", 0, 10).getContent();
+        List<ItemInputDto> percent = itemService.searchItems("%", 0, 10).getContent();
+
+        assertThat(found, hasSize(1));
+        assertThat(found.get(0).getId(), equalTo(createdItem.getId()));
+        assertThat(percent, hasSize(1));
+        assertThat(percent.get(0).getName(), equalTo("Drill"));
+    }
+
     @Test
     void updateItem() {
         UserDto userCreated = userService.createUser(UserMapper.toUserDto(owner));
@@ -117,7 +139,7 @@ public class ItemControllerIntegrationTest {
         UserDto userCreated = userService.createUser(UserMapper.toUserDto(owner));
         itemService.createItem(ItemMapper.toItemDto(item), userCreated.getId());
         itemService.createItem(ItemMapper.toItemDto(anotherItem), userCreated.getId());
-        List<ItemOutputDto> items = itemService.getAllItemsByOwner(userCreated.getId(), 0, 20);
+        List<ItemOutputDto> items = itemService.getAllItemsByOwner(userCreated.getId(), 0, 20).getContent();
         assertThat(items, hasSize(2));
         assertThat(items.get(0).getName(), equalTo(item.getName()));
         assertThat(items.get(1).getName(), equalTo(anotherItem.getName()));
@@ -158,4 +180,83 @@ public class ItemControllerIntegrationTest {
         assertThat(comment1.getId(), notNullValue());
         assertThat(comment1.getText(), equalTo("this is comment"));
     }
+
+    @Test
+    void getItemByIdCarriesRecentCommentsAndCount() {
+        final LocalDateTime date = LocalDateTime.now();
+        UserDto ownerCreated = userService.createUser(UserMapper.toUserDto(owner));
+        UserDto bookerCreated = userService.createUser(UserDto.builder()
+                .name("BookerName")
+                .email("Booker@mail.ru")
+                .build());
+        ItemInputDto createdItem = itemService.createItem(ItemMapper.toItemDto(item), ownerCreated.getId());
+        BookingDto bookingCreated = bookingService.addBooking(bookerCreated.getId(), InputBookingDto.builder()
+                .itemId(createdItem.getId())
+                .start(date.minusDays(1))
+                .end(date.minusHours(1))
+                .build());
+        bookingService.approveBooking(ownerCreated.getId(), bookingCreated.getId(), true);
+        for (int i = 0; i < 12; i++) {
+            itemService.createComment(bookerCreated.getId(), createdItem.getId(), CommentDto.builder()
+                    .text("comment " + i)
+                    .build());
+        }
+
+        ItemOutputDto itemFromGet = itemService.getItemById(createdItem.getId(), bookerCreated.getId());
+        assertThat(itemFromGet.getCommentCount(), equalTo(12L));
+        assertThat(itemFromGet.getComments(), hasSize(10));
+        assertThat(itemFromGet.getComments().get(0).getText(), equalTo("comment 2"));
+        assertThat(itemFromGet.getComments().get(9).getText(), equalTo("comment 11"));
+
+        CommentPageDto firstPage = itemService.getComments(createdItem.getId(), null, 8);
+        assertThat(firstPage.getComments(), hasSize(8));
+        assertThat(firstPage.getNextCursor(), notNullValue());
+        CommentPageDto lastPage = itemService.getComments(createdItem.getId(), firstPage.getNextCursor(), 8);
+        assertThat(lastPage.getComments(), hasSize(4));
+        assertThat(lastPage.getComments().get(3).getText(), equalTo("comment 0"));
+        assertThat(lastPage.getNextCursor(), nullValue());
+    }
+
+    @Test
+    void getAllItemsQueryCountDoesNotGrowWithPageSize() {
+        final LocalDateTime date = LocalDateTime.now();
+        UserDto ownerCreated = userService.createUser(UserMapper.toUserDto(owner));
+        UserDto bookerCreated = userService.createUser(UserDto.builder()
+                .name("BookerName")
+                .email("Booker@mail.ru")
+                .build());
+        for (int i = 0; i < 12; i++) {
+            ItemInputDto createdItem = itemService.createItem(ItemMapper.toItemDto(item), ownerCreated.getId());
+            bookingService.addBooking(bookerCreated.getId(), InputBookingDto.builder()
+                    .itemId(createdItem.getId())
+                    .start(date.minusDays(2))
+                    .end(date.minusDays(1))
+                    .build());
+            bookingService.addBooking(bookerCreated.getId(), InputBookingDto.builder()
+                    .itemId(createdItem.getId())
+                    .start(date.plusDays(1))
+                    .end(date.plusDays(2))
+                    .build());
+        }
+        Statistics statistics = entityManager.getEntityManagerFactory()
+                .unwrap(SessionFactory.class)
+                .getStatistics();
+
+        entityManager.flush();
+        entityManager.clear();
+        statistics.clear();
+        List<ItemOutputDto> smallPage = itemService.getAllItemsByOwner(ownerCreated.getId(), 0, 2).getContent();
+        long smallPageStatements = statistics.getPrepareStatementCount();
+
+        entityManager.clear();
+        statistics.clear();
+        List<ItemOutputDto> largePage = itemService.getAllItemsByOwner(ownerCreated.getId(), 0, 10).getContent();
+        long largePageStatements = statistics.getPrepareStatementCount();
+
+        assertThat(smallPage, hasSize(2));
+        assertThat(largePage, hasSize(10));
+        assertThat(largePage.get(9).getLastBooking(), notNullValue());
+        assertThat(largePage.get(9).getNextBooking(), notNullValue());
+        assertThat(largePageStatements, equalTo(smallPageStatements));
+    }
 }
@@ -6,13 +6,17 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.test.web.servlet.request.MockHttpServletRequestBuilder;
 import org.springframework.web.util.NestedServletException;
 import ru.practicum.shareit.exceptions.ForbiddenAccessException;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
+import ru.practicum.shareit.item.comment.dto.CommentPageDto;
 import ru.practicum.shareit.item.controller.ItemController;
+import ru.practicum.shareit.item.dto.ItemImportErrorDto;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
 import ru.practicum.shareit.item.dto.ItemInputDto;
 import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.model.Item;
@@ -153,7 +157,7 @@ public class ItemControllerTests {
     @Test
     void getAllItemsByOwner() throws Exception {
         when(itemService.getAllItemsByOwner(1L, 0, 2))
-                .thenReturn(List.of(ItemMapper.toItemOutputDto(item), ItemMapper.toItemOutputDto(anotherItem)));
+                .thenReturn(new SliceImpl<>(List.of(ItemMapper.toItemOutputDto(item), ItemMapper.toItemOutputDto(anotherItem))));
 
         mvc.perform(get("/items")
                         .header("X-Sharer-User-Id", 1L)
@@ -189,10 +193,33 @@ public class ItemControllerTests {
                 .andExpect(jsonPath("$.available", is(item.getAvailable())));
     }
 
+    @Test
+    void getComments() throws Exception {
+        when(itemService.getComments(1L, null, 20)).thenReturn(CommentPageDto.builder()
+                .comments(List.of(CommentDto.builder().id(2L).text("comment").authorName("UserName").build()))
+                .nextCursor("Mg")
+                .build());
+
+        mvc.perform(get("/items/1/comments"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.comments.length()").value(1))
+                .andExpect(jsonPath("$.comments[0].text", is("comment")))
+                .andExpect(jsonPath("$.nextCursor", is("Mg")));
+    }
+
+    @Test
+    void getCommentsWithTooLargeLimit() {
+        Exception e = assertThrows(NestedServletException.class, () -> {
+            mvc.perform(get("/items/1/comments")
+                    .param("limit", String.valueOf(Integer.MAX_VALUE)));
+        });
+        assertTrue(e.getCause().getLocalizedMessage().contains("must be less than or equal to 100"));
+    }
+
     @Test
     void searchItems() throws Exception {
         when(itemService.searchItems(anyString(), anyInt(), anyInt()))
-                .thenReturn(List.of(ItemMapper.toItemDto(item), ItemMapper.toItemDto(anotherItem)));
+                .thenReturn(new SliceImpl<>(List.of(ItemMapper.toItemDto(item), ItemMapper.toItemDto(anotherItem))));
 
         mvc.perform(get("/items/search")
                         .header("X-Sharer-User-Id", 1L)
@@ -239,6 +266,28 @@ public class ItemControllerTests {
                 .andExpect(jsonPath("$.authorName", is(comment.getAuthorName())));
     }
 
+    @Test
+    void importItems() throws Exception {
+        when(itemService.importItems(eq(1L), any()))
+                .thenReturn(ItemImportResultDto.builder()
+                        .imported(1)
+                        .errors(List.of(ItemImportErrorDto.builder()
+                                .line(2L)
+                                .error("Отсутствует статус.")
+                                .build()))
+                        .build());
+
+        mvc.perform(post("/items/import")
+                        .content(mapper.writeValueAsString(ItemMapper.toItemDto(item)) + "\n{\"name\":\"Пила\"}")
+                        .header("X-Sharer-User-Id", 1L)
+                        .contentType("application/x-ndjson")
+                        .accept(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.imported", is(1)))
+                .andExpect(jsonPath("$.errors[0].line", is(2)))
+                .andExpect(jsonPath("$.errors[0].error", is("Отсутствует статус.")));
+    }
+
     private MockHttpServletRequestBuilder createContentFromItemInputDto(MockHttpServletRequestBuilder builder,
                                                                         ItemInputDto itemInputDto,
                                                                         Long id) throws JsonProcessingException {
@@ -0,0 +1,117 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.Test;
+import ru.practicum.shareit.booking.dto.BookingDtoForItem;
+import ru.practicum.shareit.item.dto.ItemOutputDto;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+
+import java.util.Collections;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class ItemDetailCacheTests {
+    private final AtomicInteger loads = new AtomicInteger();
+
+    private Supplier<ItemDetailCache.ItemDetail> loader(Long itemId) {
+        return () -> {
+            loads.incrementAndGet();
+            return new ItemDetailCache.ItemDetail(1L, ItemOutputDto.builder()
+                    .id(itemId)
+                    .name("ItemName")
+                    .description("ItemDesc")
+                    .available(true)
+                    .nextBooking(BookingDtoForItem.builder().id(1L).bookerId(2L).build())
+                    .comments(Collections.emptyList())
+                    .build());
+        };
+    }
+
+    @Test
+    void ownerAndGuestViewsAreCachedSeparately() {
+        ItemDetailCache cache = new ItemDetailCache(10, 300);
+
+        cache.get(1L, 1L, loader(1L));
+        cache.get(1L, 1L, loader(1L));
+        cache.get(1L, 2L, loader(1L));
+        cache.get(1L, 3L, loader(1L));
+
+        assertEquals(2, loads.get());
+        assertEquals(2, cache.getHits());
+        assertEquals(2, cache.getSize());
+    }
+
+    @Test
+    void cachedItemIsCopied() {
+        ItemDetailCache cache = new ItemDetailCache(10, 300);
+
+        cache.get(1L, 2L, loader(1L)).setName("Changed");
+        cache.get(1L, 2L, loader(1L)).getNextBooking().setId(5L);
+
+        ItemOutputDto cached = cache.get(1L, 2L, loader(1L));
+        assertEquals("ItemName", cached.getName());
+        assertEquals(1L, cached.getNextBooking().getId());
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void evictDropsBothViews() {
+        ItemDetailCache cache = new ItemDetailCache(10, 300);
+
+        cache.get(1L, 1L, loader(1L));
+        cache.get(1L, 2L, loader(1L));
+        cache.evict(1L);
+
+        assertEquals(0, cache.getSize());
+        cache.get(1L, 1L, loader(1L));
+        assertEquals(3, loads.get());
+    }
+
+    @Test
+    void loadStartedBeforeEvictIsNotCached() {
+        ItemDetailCache cache = new ItemDetailCache(10, 300);
+        ItemDetailCache.ItemDetail shared = cache.load(loader(1L));
+
+        cache.evict(1L);
+        cache.get(1L, 2L, () -> shared);
+
+        assertEquals(0, cache.getSize());
+        cache.get(1L, 2L, loader(1L));
+        assertEquals(1, cache.getSize());
+    }
+
+    @Test
+    void clearDropsEverything() {
+        ItemDetailCache cache = new ItemDetailCache(10, 300);
+
+        cache.get(1L, 1L, loader(1L));
+        cache.get(2L, 2L, loader(2L));
+        cache.clear();
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void refreshRemovesExpiredEntries() {
+        ItemDetailCache cache = new ItemDetailCache(10, 0);
+
+        cache.get(1L, 1L, loader(1L));
+        cache.get(2L, 1L, loader(2L));
+        cache.refresh();
+
+        assertEquals(0, cache.getSize());
+    }
+
+    @Test
+    void leastRecentlyUsedItemIsEvictedWhenFull() {
+        ItemDetailCache cache = new ItemDetailCache(1, 300);
+
+        cache.get(1L, 2L, loader(1L));
+        cache.get(2L, 2L, loader(2L));
+        cache.get(1L, 2L, loader(1L));
+
+        assertEquals(1, cache.getSize());
+        assertEquals(3, loads.get());
+    }
+}
@@ -0,0 +1,160 @@
+package ru.practicum.shareit.item;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.module.paramnames.ParameterNamesModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.Spy;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+import ru.practicum.shareit.item.dto.ItemImportResultDto;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemImporter;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+import ru.practicum.shareit.item.service.ItemValidator;
+import ru.practicum.shareit.requests.model.ItemRequest;
+import ru.practicum.shareit.requests.repository.ItemRequestRepository;
+import ru.practicum.shareit.user.model.User;
+
+import java.io.BufferedReader;
+import java.io.StringReader;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemImporterTests {
+    @InjectMocks
+    private ItemImporter itemImporter;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemRequestRepository itemRequestRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Spy
+    private ItemValidator itemValidator;
+    @Spy
+    private ObjectMapper objectMapper = Jackson2ObjectMapperBuilder.json()
+            .modulesToInstall(new ParameterNamesModule())
+            .build();
+    @Mock
+    private TransactionTemplate transactionTemplate;
+
+    private final User owner = User.builder()
+            .id(1L)
+            .name("UserName")
+            .email("user@mail.ru")
+            .build();
+    private final ItemRequest itemRequest = ItemRequest.builder()
+            .id(5L)
+            .description("itemRequestDescription")
+            .build();
+
+    @BeforeEach
+    void doBeforeEach() {
+        when(transactionTemplate.execute(any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+    }
+
+    @Test
+    void importItemsReportsInvalidLines() {
+        when(itemRequestRepository.findAllById(any())).thenReturn(List.of(itemRequest));
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        String body = "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}\n" +
+                "\n" +
+                "{\"name\":\"Пила\"\n" +
+                "{\"name\":\"Пила\",\"available\":true}\n" +
+                "{\"name\":\"Отвертка\",\"description\":\"Крестовая\",\"available\":true,\"requestId\":5}\n" +
+                "{\"name\":\"Молоток\",\"description\":\"Тяжелый\",\"available\":true,\"requestId\":6}\n";
+
+        ItemImportResultDto result = itemImporter.importItems(owner, new BufferedReader(new StringReader(body)));
+        assertEquals(2, result.getImported());
+        assertEquals(3, result.getErrors().size());
+        assertEquals(3L, result.getErrors().get(0).getLine());
+        assertEquals("Неверный формат строки.", result.getErrors().get(0).getError());
+        assertEquals(4L, result.getErrors().get(1).getLine());
+        assertEquals("Отсутствует развёрнутое описание.", result.getErrors().get(1).getError());
+        assertEquals(6L, result.getErrors().get(2).getLine());
+        assertEquals("Запрос c id=6 не найден.", result.getErrors().get(2).getError());
+
+        verify(itemRequestRepository, times(1)).findAllById(any());
+        verify(itemSearchIndex, times(2)).put(any(Item.class));
+    }
+
+    @Test
+    void importItemsInBatches() {
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        String body = IntStream.range(0, ItemImporter.BATCH_SIZE * 2 + 1)
+                .mapToObj(i -> "{\"name\":\"Item" + i + "\",\"description\":\"Desc\",\"available\":true}")
+                .collect(Collectors.joining("\n"));
+
+        ItemImportResultDto result = itemImporter.importItems(owner, new BufferedReader(new StringReader(body)));
+        assertEquals(ItemImporter.BATCH_SIZE * 2 + 1, result.getImported());
+        assertTrue(result.getErrors().isEmpty());
+
+        verify(transactionTemplate, times(3)).execute(any());
+        verify(itemRepository, times(3)).saveAll(anyList());
+        verify(itemRequestRepository, never()).findAllById(any());
+    }
+
+    @Test
+    void failedBatchIsReportedPerLine() {
+        when(itemRepository.saveAll(anyList())).thenThrow(new DataIntegrityViolationException("error"));
+        String body = "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}\n" +
+                "{\"name\":\"Пила\",\"description\":\"Ножовка\",\"available\":true}";
+
+        ItemImportResultDto result = itemImporter.importItems(owner, new BufferedReader(new StringReader(body)));
+        assertEquals(0, result.getImported());
+        assertEquals(2, result.getErrors().size());
+        assertEquals("Не удалось сохранить предмет.", result.getErrors().get(1).getError());
+        verify(itemRepository, times(3)).saveAll(anyList());
+    }
+
+    @Test
+    void failedBatchIsRetriedLineByLine() {
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> {
+            List<Item> items = invocation.getArgument(0);
+            if (items.stream().anyMatch(item -> item.getName().equals("Пила"))) {
+                throw new DataIntegrityViolationException("error");
+            }
+            return items;
+        });
+        String body = "{\"name\":\"Дрель\",\"description\":\"Простая дрель\",\"available\":true}\n" +
+                "{\"name\":\"Пила\",\"description\":\"Ножовка\",\"available\":true}\n" +
+                "{\"name\":\"Отвертка\",\"description\":\"Крестовая\",\"available\":true}";
+
+        ItemImportResultDto result = itemImporter.importItems(owner, new BufferedReader(new StringReader(body)));
+        assertEquals(2, result.getImported());
+        assertEquals(1, result.getErrors().size());
+        assertEquals(2L, result.getErrors().get(0).getLine());
+        verify(itemSearchIndex, times(2)).put(any(Item.class));
+    }
+
+    @Test
+    void tooLongLinesAreRejectedBeforeSaving() {
+        when(itemRepository.saveAll(anyList())).thenAnswer(invocation -> invocation.getArgument(0));
+        String body = "{\"name\":\"" + "Д".repeat(256) + "\",\"description\":\"Простая дрель\",\"available\":true}\n" +
+                "{\"name\":\"Пила\",\"description\":\"" + "Н".repeat(1001) + "\",\"available\":true}\n" +
+                "{\"name\":\"Отвертка\",\"description\":\"Крестовая\",\"available\":true}";
+
+        ItemImportResultDto result = itemImporter.importItems(owner, new BufferedReader(new StringReader(body)));
+        assertEquals(1, result.getImported());
+        assertEquals(2, result.getErrors().size());
+        assertEquals("Краткое название длиннее 255 символов.", result.getErrors().get(0).getError());
+        assertEquals("Развёрнутое описание длиннее 1000 символов.", result.getErrors().get(1).getError());
+        verify(itemRepository, times(1)).saveAll(anyList());
+    }
+}
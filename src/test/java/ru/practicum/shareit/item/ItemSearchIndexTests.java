@@ -0,0 +1,157 @@
+package ru.practicum.shareit.item;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.projection.ProjectionFactory;
+import org.springframework.data.projection.SpelAwareProxyProjectionFactory;
+import ru.practicum.shareit.item.dto.ItemSearchView;
+import ru.practicum.shareit.item.model.Item;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
+
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+public class ItemSearchIndexTests {
+    private static final ProjectionFactory PROJECTIONS = new SpelAwareProxyProjectionFactory();
+
+    @InjectMocks
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private ItemRepository itemRepository;
+
+    private final Item drill = Item.builder()
+            .id(1L)
+            .name("Дрель")
+            .description("Простая дрель")
+            .available(true)
+            .build();
+    private final Item screwdriver = Item.builder()
+            .id(2L)
+            .name("Отвертка")
+            .description("Аккумуляторная отвертка-дрель")
+            .available(true)
+            .build();
+    private final Item brokenDrill = Item.builder()
+            .id(3L)
+            .name("Дрель")
+            .description("Сломана")
+            .available(false)
+            .build();
+
+    @BeforeEach
+    void doBeforeEach() {
+        when(itemRepository.findSearchViewsByIdGreaterThan(eq(0L), any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(view(drill), view(screwdriver), view(brokenDrill))));
+        itemSearchIndex.rebuild();
+    }
+
+    @Test
+    void searchByNameAndDescriptionIgnoringCase() {
+        assertEquals(List.of(1L, 2L), itemSearchIndex.search("дРЕль", PageRequest.of(0, 20)).getContent());
+        assertEquals(List.of(2L), itemSearchIndex.search("аккум", PageRequest.of(0, 20)).getContent());
+    }
+
+    @Test
+    void searchWithShortQueryGoesToDatabase() {
+        when(itemRepository.searchAvailableIds("др", PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of(1L, 2L)));
+
+        assertEquals(List.of(1L, 2L), itemSearchIndex.search("Др", PageRequest.of(0, 20)).getContent());
+    }
+
+    @Test
+    void searchWithShortQueryEscapesWildcards() {
+        when(itemRepository.searchAvailableIds("\\%", PageRequest.of(0, 20)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        assertTrue(itemSearchIndex.search("%", PageRequest.of(0, 20)).getContent().isEmpty());
+    }
+
+    @Test
+    void searchWithPagination() {
+        assertEquals(List.of(2L), itemSearchIndex.search("дрель", PageRequest.of(1, 1)).getContent());
+    }
+
+    @Test
+    void searchReportsNextSlice() {
+        Slice<Long> first = itemSearchIndex.search("дрель", PageRequest.of(0, 1));
+        assertEquals(List.of(1L), first.getContent());
+        assertTrue(first.hasNext());
+        assertFalse(itemSearchIndex.search("дрель", PageRequest.of(1, 1)).hasNext());
+    }
+
+    @Test
+    void searchUnknownText() {
+        assertEquals(List.of(), itemSearchIndex.search("пила", PageRequest.of(0, 20)).getContent());
+    }
+
+    @Test
+    void searchAfterUpdateAndRemove() {
+        itemSearchIndex.put(Item.builder()
+                .id(1L)
+                .name("Пила")
+                .description("Ножовка")
+                .available(true)
+                .build());
+        itemSearchIndex.put(Item.builder()
+                .id(3L)
+                .name("Дрель")
+                .description("Починена")
+                .available(true)
+                .build());
+        itemSearchIndex.remove(2L);
+
+        assertEquals(List.of(3L), itemSearchIndex.search("дрель", PageRequest.of(0, 20)).getContent());
+        assertEquals(List.of(1L), itemSearchIndex.search("пила", PageRequest.of(0, 20)).getContent());
+    }
+
+    @Test
+    void catchUpIndexesItemsAddedElsewhere() {
+        Item saw = Item.builder()
+                .id(4L)
+                .name("Пила")
+                .description("Ножовка")
+                .available(true)
+                .build();
+        when(itemRepository.findSearchViewsByIdGreaterThan(eq(3L), any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(view(saw))));
+        when(itemRepository.findSearchViewsByIdGreaterThan(eq(4L), any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of()));
+
+        itemSearchIndex.catchUp();
+        itemSearchIndex.catchUp();
+
+        assertEquals(List.of(4L), itemSearchIndex.search("пила", PageRequest.of(0, 20)).getContent());
+        verify(itemRepository).findSearchViewsByIdGreaterThan(eq(4L), any(PageRequest.class));
+    }
+
+    @Test
+    void rebuildDropsItemsChangedElsewhere() {
+        when(itemRepository.findSearchViewsByIdGreaterThan(eq(0L), any(PageRequest.class)))
+                .thenReturn(new SliceImpl<>(List.of(view(drill))));
+
+        itemSearchIndex.rebuild();
+
+        assertEquals(List.of(1L), itemSearchIndex.search("дрель", PageRequest.of(0, 20)).getContent());
+    }
+
+    private static ItemSearchView view(Item item) {
+        return PROJECTIONS.createProjection(ItemSearchView.class, item);
+    }
+}
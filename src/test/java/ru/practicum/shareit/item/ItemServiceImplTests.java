@@ -4,17 +4,24 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.transaction.PlatformTransactionManager;
+import ru.practicum.shareit.booking.dto.BookingView;
 import ru.practicum.shareit.booking.model.Booking;
 import ru.practicum.shareit.booking.model.StatusType;
 import ru.practicum.shareit.booking.repository.BookingRepository;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
+import ru.practicum.shareit.coalescing.SingleFlight;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.ForbiddenAccessException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.item.comment.dto.CommentCount;
 import ru.practicum.shareit.item.comment.dto.CommentDto;
 import ru.practicum.shareit.item.comment.dto.CommentMapper;
+import ru.practicum.shareit.item.comment.dto.CommentPageDto;
 import ru.practicum.shareit.item.comment.model.Comment;
 import ru.practicum.shareit.item.comment.repository.CommentRepository;
 import ru.practicum.shareit.item.dto.ItemInputDto;
@@ -22,19 +29,34 @@ import ru.practicum.shareit.item.dto.ItemMapper;
 import ru.practicum.shareit.item.dto.ItemOutputDto;
 import ru.practicum.shareit.item.model.Item;
 import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.item.service.ItemServiceImpl;
+import ru.practicum.shareit.item.service.ItemValidator;
+import ru.practicum.shareit.pagination.IdCursor;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
 import java.util.Collections;
 import java.util.List;
 import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
 import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -42,13 +64,25 @@ public class ItemServiceImplTests {
     @InjectMocks
     private ItemServiceImpl itemService;
     @Mock
-    private UserRepository userRepository;
+    private UserResolver userResolver;
     @Mock
     private ItemRepository itemRepository;
     @Mock
     private BookingRepository bookingRepository;
     @Mock
     private CommentRepository commentRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Spy
+    private ItemDetailCache itemDetailCache = new ItemDetailCache(10, 300);
+    @Spy
+    private SingleFlight singleFlight = new SingleFlight();
+    @Spy
+    private ItemValidator itemValidator;
+    @Mock
+    private PlatformTransactionManager transactionManager;
 
     private final LocalDateTime date = LocalDateTime.now();
     private final User owner = User.builder()
@@ -73,18 +107,21 @@ public class ItemServiceImplTests {
     @Test
     void createItem() {
         ItemInputDto inputDto = ItemMapper.toItemDto(item);
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(owner));
+        when(userResolver.getUser(anyLong())).thenReturn(owner);
         when(itemRepository.save(any())).thenReturn(item);
 
         ItemInputDto createdItem = itemService.createItem(inputDto, anyLong());
         assertEquals(createdItem, inputDto);
 
         verify(itemRepository, times(1)).save(any());
+        verify(itemSearchIndex, times(1)).put(item);
     }
 
     @Test
     void createItemWithOwnerUnknownShouldThrowException() {
         ItemInputDto inputDto = ItemMapper.toItemDto(item);
+        when(userResolver.getUser(11L))
+                .thenThrow(new ObjectNotFoundException("Пользователь c id=11 не найден."));
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> itemService.createItem(inputDto, 11L));
         assertEquals("Пользователь c id=11 не найден.", exception.getMessage());
@@ -196,63 +233,228 @@ public class ItemServiceImplTests {
     void deleteItem() {
         itemService.deleteItem(1L);
         verify(itemRepository, times(1)).deleteById(anyLong());
+        verify(itemSearchIndex, times(1)).remove(1L);
+        verify(itemDetailCache, times(1)).evict(1L);
+        verify(bookingIntervalIndex, times(1)).removeItem(1L);
     }
 
     @Test
     void searchItems() {
-        when(itemRepository.search(anyString(), any()))
-                .thenReturn(new PageImpl<Item>(List.of(item, anotherItem)));
+        when(itemSearchIndex.search("Item", PageRequest.of(0, 2))).thenReturn(new SliceImpl<>(List.of(1L, 2L)));
+        when(itemRepository.findAllById(List.of(1L, 2L))).thenReturn(List.of(anotherItem, item));
 
-        List<ItemInputDto> searchResult = itemService.searchItems("Item", 0, 2);
+        List<ItemInputDto> searchResult = itemService.searchItems("Item", 0, 2).getContent();
         assertEquals(2, searchResult.size());
+        assertEquals(item.getId(), searchResult.get(0).getId());
+        assertEquals(anotherItem.getId(), searchResult.get(1).getId());
     }
 
     @Test
     void searchItemsWithBlankQuery() {
-        List<ItemInputDto> searchResult = itemService.searchItems("", 0, 2);
+        List<ItemInputDto> searchResult = itemService.searchItems("", 0, 2).getContent();
         assertEquals(searchResult.size(), 0);
+        verifyNoInteractions(itemSearchIndex);
     }
 
     @Test
     void getItemById() {
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findLastBooking(anyLong(), anyLong())).thenReturn(Optional.empty());
-        when(bookingRepository.findNextBooking(anyLong(), anyLong())).thenReturn(Optional.empty());
-        when(commentRepository.findAllByItemId(anyLong())).thenReturn(Collections.emptyList());
+        when(commentRepository.findRecentByItemIdIn(anyCollection(), anyLong())).thenReturn(Collections.emptyList());
 
         ItemOutputDto itemOutputDto = itemService.getItemById(1L, 1L);
         assertEquals(itemOutputDto.getName(), item.getName());
         assertEquals(itemOutputDto.getDescription(), item.getDescription());
         assertEquals(itemOutputDto.getComments().size(), 0);
+        verify(bookingRepository, never()).findAllViewsByIdIn(any());
     }
 
     @Test
     void getItemWithBookingsById() {
+        item.setLastBookingId(1L);
+        item.setNextBookingId(2L);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(bookingRepository.findLastBooking(anyLong(), anyLong())).thenReturn(Optional.ofNullable(Booking.builder().booker(owner).build()));
-        when(bookingRepository.findNextBooking(anyLong(), anyLong())).thenReturn(Optional.ofNullable(Booking.builder().booker(owner).build()));
-        when(commentRepository.findAllByItemId(anyLong())).thenReturn(Collections.emptyList());
+        when(bookingRepository.findAllViewsByIdIn(Set.of(1L, 2L))).thenReturn(List.of(
+                toView(Booking.builder().id(1L).start(date.minusDays(2)).end(date.minusDays(1))
+                        .item(item).booker(owner).build()),
+                toView(Booking.builder().id(2L).start(date.plusDays(1)).end(date.plusDays(2))
+                        .item(item).booker(owner).build())));
+        when(commentRepository.findRecentByItemIdIn(anyCollection(), anyLong())).thenReturn(Collections.emptyList());
 
         ItemOutputDto itemOutputDto = itemService.getItemById(1L, 1L);
         assertEquals(itemOutputDto.getName(), item.getName());
         assertEquals(itemOutputDto.getDescription(), item.getDescription());
         assertEquals(itemOutputDto.getComments().size(), 0);
+        assertEquals(1L, itemOutputDto.getLastBooking().getId());
+        assertEquals(2L, itemOutputDto.getNextBooking().getId());
+    }
+
+    @Test
+    void getItemWithBookingsByIdForNonOwner() {
+        item.setLastBookingId(1L);
+        item.setNextBookingId(2L);
+        when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
+        when(commentRepository.findRecentByItemIdIn(anyCollection(), anyLong())).thenReturn(Collections.emptyList());
+
+        ItemOutputDto itemOutputDto = itemService.getItemById(1L, 2L);
+        assertNull(itemOutputDto.getLastBooking());
+        assertNull(itemOutputDto.getNextBooking());
+    }
+
+    @Test
+    void getItemByIdIsCachedPerView() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(commentRepository.findRecentByItemIdIn(anyCollection(), anyLong())).thenReturn(Collections.emptyList());
+
+        itemService.getItemById(1L, 1L);
+        itemService.getItemById(1L, 1L);
+        itemService.getItemById(1L, 2L);
+        itemService.getItemById(1L, 3L);
+
+        verify(itemRepository, times(2)).findById(1L);
+        assertEquals(2, itemDetailCache.getHits());
+    }
+
+    @Test
+    void concurrentGetItemByIdLoadsOnce() throws Exception {
+        int callers = 16;
+        item.setNextBookingId(2L);
+        when(itemRepository.findById(1L)).thenAnswer(invocation -> {
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+            while (singleFlight.getShared() < callers - 1 && System.nanoTime() < deadline) {
+                Thread.onSpinWait();
+            }
+            return Optional.of(item);
+        });
+        when(bookingRepository.findAllViewsByIdIn(Set.of(2L))).thenReturn(List.of(
+                toView(Booking.builder().id(2L).start(date.plusDays(1)).end(date.plusDays(2))
+                        .item(item).booker(owner).build())));
+        when(commentRepository.findRecentByItemIdIn(anyCollection(), anyLong())).thenReturn(Collections.emptyList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(callers);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<ItemOutputDto>> results = new ArrayList<>();
+        for (int i = 0; i < callers; i++) {
+            long userId = i % 2 + 1;
+            results.add(executor.submit(() -> {
+                start.await();
+                return itemService.getItemById(1L, userId);
+            }));
+        }
+        start.countDown();
+
+        for (int i = 0; i < callers; i++) {
+            ItemOutputDto itemOutputDto = results.get(i).get(10, TimeUnit.SECONDS);
+            assertEquals(item.getName(), itemOutputDto.getName());
+            if (i % 2 == 0) {
+                assertEquals(2L, itemOutputDto.getNextBooking().getId());
+            } else {
+                assertNull(itemOutputDto.getNextBooking());
+            }
+        }
+        executor.shutdown();
+        verify(itemRepository, times(1)).findById(1L);
+        assertEquals(callers - 1, singleFlight.getShared());
+    }
+
+    @Test
+    void getItemByIdReloadsAfterUpdate() {
+        when(itemRepository.findById(1L)).thenReturn(Optional.of(item));
+        when(itemRepository.save(any())).thenReturn(item);
+        when(commentRepository.findRecentByItemIdIn(anyCollection(), anyLong())).thenReturn(Collections.emptyList());
+
+        itemService.getItemById(1L, 2L);
+        itemService.updateItem(1L, ItemInputDto.builder().name("ItemName").build(), 1L);
+        itemService.getItemById(1L, 2L);
+
+        assertEquals(0, itemDetailCache.getHits());
+        verify(itemDetailCache, times(1)).evict(1L);
+    }
+
+    @Test
+    void callerJoiningLoadAfterEvictDoesNotCacheIt() throws Exception {
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        when(itemRepository.findById(1L)).thenAnswer(invocation -> {
+            loading.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return Optional.of(item);
+        });
+        when(commentRepository.findRecentByItemIdIn(anyCollection(), anyLong())).thenReturn(Collections.emptyList());
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        Future<ItemOutputDto> first = executor.submit(() -> itemService.getItemById(1L, 2L));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        itemDetailCache.evict(1L);
+        Future<ItemOutputDto> second = executor.submit(() -> itemService.getItemById(1L, 3L));
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (singleFlight.getShared() < 1 && System.nanoTime() < deadline) {
+            Thread.onSpinWait();
+        }
+        release.countDown();
+
+        first.get(10, TimeUnit.SECONDS);
+        second.get(10, TimeUnit.SECONDS);
+        executor.shutdown();
+        assertEquals(1, singleFlight.getShared());
+        assertEquals(0, itemDetailCache.getSize());
     }
 
     @Test
     void getItemByIdWithUnknownIdShouldThrowException() {
         when(itemRepository.findById(anyLong())).thenThrow(ObjectNotFoundException.class);
         assertThrows(ObjectNotFoundException.class,
-                () -> itemService.getItemById(11L, anyLong()));
+                () -> itemService.getItemById(11L, 1L));
     }
 
     @Test
     void getAllItemsByOwner() {
-        when(itemRepository.findAll(PageRequest.of(0, 2)))
-                .thenReturn(new PageImpl<Item>(List.of(item, anotherItem)));
+        when(itemRepository.findAllByOwnerId(1L, PageRequest.of(0, 2)))
+                .thenReturn(new SliceImpl<>(List.of(item, anotherItem)));
+
+        when(commentRepository.findRecentByItemIdIn(List.of(1L, 2L), 10)).thenReturn(List.of(Comment.builder()
+                .id(1L)
+                .text("this is comment")
+                .item(anotherItem)
+                .author(owner)
+                .build()));
+        when(commentRepository.countByItemIdIn(List.of(1L, 2L))).thenReturn(List.of(new CommentCount(2L, 25L)));
 
-        List<ItemOutputDto> allItems = itemService.getAllItemsByOwner(1L, 0, 2);
+        List<ItemOutputDto> allItems = itemService.getAllItemsByOwner(1L, 0, 2).getContent();
         assertEquals(2, allItems.size());
+        assertEquals(0, allItems.get(0).getComments().size());
+        assertEquals(1, allItems.get(1).getComments().size());
+        assertEquals(0L, allItems.get(0).getCommentCount());
+        assertEquals(25L, allItems.get(1).getCommentCount());
+
+        verifyNoInteractions(bookingRepository);
+        verify(commentRepository, times(1)).findRecentByItemIdIn(List.of(1L, 2L), 10);
+    }
+
+    @Test
+    void getComments() {
+        List<Comment> comments = List.of(
+                Comment.builder().id(5L).text("5").item(item).author(owner).build(),
+                Comment.builder().id(4L).text("4").item(item).author(owner).build(),
+                Comment.builder().id(3L).text("3").item(item).author(owner).build());
+        when(itemRepository.existsById(1L)).thenReturn(true);
+        when(commentRepository.findAllByItemIdBefore(1L, Long.MAX_VALUE, PageRequest.of(0, 3))).thenReturn(comments);
+        when(commentRepository.findAllByItemIdBefore(1L, 4L, PageRequest.of(0, 3))).thenReturn(comments.subList(2, 3));
+
+        CommentPageDto firstPage = itemService.getComments(1L, null, 2);
+        assertEquals(2, firstPage.getComments().size());
+        assertEquals(5L, firstPage.getComments().get(0).getId());
+        assertEquals(IdCursor.encode(4L), firstPage.getNextCursor());
+
+        CommentPageDto lastPage = itemService.getComments(1L, firstPage.getNextCursor(), 2);
+        assertEquals(1, lastPage.getComments().size());
+        assertNull(lastPage.getNextCursor());
+    }
+
+    @Test
+    void getCommentsOfUnknownItemShouldThrowException() {
+        when(itemRepository.existsById(11L)).thenReturn(false);
+        assertThrows(ObjectNotFoundException.class, () -> itemService.getComments(11L, null, 20));
+        verifyNoInteractions(commentRepository);
     }
 
     @Test
@@ -262,14 +464,6 @@ public class ItemServiceImplTests {
                 .name("BookerName")
                 .email("emailBooker@mail.ru")
                 .build();
-        Booking booking = Booking.builder()
-                .id(1L)
-                .start(date.minusDays(1))
-                .end(date.minusHours(1))
-                .item(item)
-                .booker(booker)
-                .status(StatusType.APPROVED)
-                .build();
         Comment comment = Comment.builder()
                 .id(1L)
                 .text("this is comment")
@@ -277,9 +471,10 @@ public class ItemServiceImplTests {
                 .author(booker)
                 .created(date.plusDays(1))
                 .build();
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(eq(2L), eq(1L),
+                eq(StatusType.APPROVED), any())).thenReturn(true);
         when(itemRepository.findById(anyLong())).thenReturn(Optional.of(item));
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(booker));
-        when(bookingRepository.findAllByBookerId(anyLong())).thenReturn(List.of(booking));
+        when(userResolver.getUser(anyLong())).thenReturn(booker);
         when(commentRepository.save(any())).thenReturn(comment);
 
         CommentDto commentCreated = itemService.createComment(2L, 1L, CommentMapper.toCommentDto(comment));
@@ -291,29 +486,27 @@ public class ItemServiceImplTests {
     }
 
     @Test
-    void createCommentWithWrongStatus() {
-        User booker = User.builder()
-                .id(2L)
-                .name("BookerName")
-                .email("emailBooker@mail.ru")
-                .build();
-        Booking booking = Booking.builder()
-                .id(1L)
-                .start(date.minusDays(1))
-                .end(date.minusHours(1))
-                .item(item)
-                .booker(booker)
-                .status(StatusType.REJECTED)
-                .build();
+    void createCommentWithoutFinishedApprovedBooking() {
         Comment comment = Comment.builder()
                 .id(1L)
                 .text("this is comment")
                 .item(item)
-                .author(booker)
+                .author(owner)
                 .build();
 
-        when(bookingRepository.findAllByBookerId(anyLong())).thenReturn(List.of(booking));
-        assertThrows(BadRequestException.class,
+        when(bookingRepository.existsByBookerIdAndItemIdAndStatusAndEndBefore(eq(2L), eq(1L),
+                eq(StatusType.APPROVED), any())).thenReturn(false);
+        BadRequestException exception = assertThrows(BadRequestException.class,
                 () -> itemService.createComment(2L, 1L, CommentMapper.toCommentDto(comment)));
+        assertEquals("Пользователь c id=2 не имеет бронирований, к которым можно добавить комментарий.",
+                exception.getMessage());
+        verify(commentRepository, never()).save(any());
+    }
+
+    private BookingView toView(Booking booking) {
+        return new BookingView(booking.getId(), booking.getStart(), booking.getEnd(), booking.getStatus(),
+                booking.getItem().getId(), booking.getItem().getName(), booking.getItem().getDescription(),
+                booking.getItem().getAvailable(), null,
+                booking.getBooker().getId(), booking.getBooker().getName(), booking.getBooker().getEmail());
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,55 @@
+package ru.practicum.shareit.metrics;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.web.servlet.MockMvc;
+import ru.practicum.shareit.coalescing.SingleFlight;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.metrics.controller.MetricsController;
+import ru.practicum.shareit.user.service.UserResolver;
+
+import static org.hamcrest.Matchers.is;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@WebMvcTest(controllers = MetricsController.class)
+public class MetricsControllerTests {
+    @MockBean
+    private UserResolver userResolver;
+    @MockBean
+    private ItemDetailCache itemDetailCache;
+    @MockBean
+    private SingleFlight singleFlight;
+    @Autowired
+    private MockMvc mvc;
+
+    @Test
+    void getMetrics() throws Exception {
+        when(userResolver.getHits()).thenReturn(7L);
+        when(userResolver.getMisses()).thenReturn(3L);
+        when(userResolver.getSize()).thenReturn(2);
+        when(itemDetailCache.getHits()).thenReturn(5L);
+        when(itemDetailCache.getMisses()).thenReturn(1L);
+        when(itemDetailCache.getSize()).thenReturn(1);
+        when(singleFlight.getCalls()).thenReturn(4L);
+        when(singleFlight.getShared()).thenReturn(1L);
+        when(singleFlight.getDedupeRatio()).thenReturn(0.25);
+
+        mvc.perform(get("/metrics"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.userCache.hits", is(7)))
+                .andExpect(jsonPath("$.userCache.misses", is(3)))
+                .andExpect(jsonPath("$.userCache.size", is(2)))
+                .andExpect(jsonPath("$.itemCache.hits", is(5)))
+                .andExpect(jsonPath("$.itemCache.misses", is(1)))
+                .andExpect(jsonPath("$.itemCache.size", is(1)))
+                .andExpect(jsonPath("$.singleFlight.calls", is(4)))
+                .andExpect(jsonPath("$.singleFlight.shared", is(1)))
+                .andExpect(jsonPath("$.singleFlight.dedupeRatio", is(0.25)))
+                .andExpect(jsonPath("$.singleFlight.inFlight", is(0)));
+    }
+}
@@ -99,4 +99,21 @@ public class ItemRequestsControllerIntegrationTest {
         assertThat(requests, notNullValue());
         assertThat(requests.get(0).getDescription(), equalTo("itemRequestDescription"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void findAllRequestReturnsFullPageOfOtherUsersRequests() {
+        UserDto requesterCreated = userService.createUser(UserMapper.toUserDto(requester));
+        UserDto userCreated = userService.createUser(UserMapper.toUserDto(owner));
+        itemRequestService.createRequest(userCreated.getId(), ItemRequestDto.builder()
+                .description("ownRequest").build());
+        itemRequestService.createRequest(requesterCreated.getId(), ItemRequestDto.builder()
+                .description("firstRequest").build());
+        itemRequestService.createRequest(requesterCreated.getId(), ItemRequestDto.builder()
+                .description("secondRequest").build());
+        List<ItemRequestOutputDto> requests = itemRequestService.findAllRequest(userCreated.getId(), 0, 2).getContent();
+
+        assertThat(requests.size(), equalTo(2));
+        assertThat(requests.get(0).getDescription(), equalTo("firstRequest"));
+        assertThat(requests.get(1).getDescription(), equalTo("secondRequest"));
+    }
+}
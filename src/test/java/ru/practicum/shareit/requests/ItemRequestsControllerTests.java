@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.http.MediaType;
 import org.springframework.test.web.servlet.MockMvc;
 import org.springframework.web.util.NestedServletException;
@@ -131,7 +132,7 @@ public class ItemRequestsControllerTests {
     @Test
     void getAllRequests() throws Exception {
         when(itemRequestService.findAllRequest(anyLong(), anyInt(), anyInt()))
-                .thenReturn(List.of(ItemRequestMapper.itemRequestOutputDto(itemRequest,Collections.emptyList())));
+                .thenReturn(new SliceImpl<>(List.of(ItemRequestMapper.itemRequestOutputDto(itemRequest,Collections.emptyList()))));
 
         mvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 1L)
@@ -145,7 +146,7 @@ public class ItemRequestsControllerTests {
     @Test
     void getAllRequestsWithoutParam() throws Exception {
         when(itemRequestService.findAllRequest(anyLong(), anyInt(), anyInt()))
-                .thenReturn(List.of(ItemRequestMapper.itemRequestOutputDto(itemRequest, Collections.emptyList())));
+                .thenReturn(new SliceImpl<>(List.of(ItemRequestMapper.itemRequestOutputDto(itemRequest, Collections.emptyList()))));
 
         mvc.perform(get("/requests/all")
                         .header("X-Sharer-User-Id", 1L))
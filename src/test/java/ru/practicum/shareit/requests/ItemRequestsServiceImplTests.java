@@ -5,8 +5,8 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.SliceImpl;
 import org.springframework.data.domain.Sort;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
 import ru.practicum.shareit.item.model.Item;
@@ -18,7 +18,7 @@ import ru.practicum.shareit.requests.model.ItemRequest;
 import ru.practicum.shareit.requests.repository.ItemRequestRepository;
 import ru.practicum.shareit.requests.service.ItemRequestServiceImpl;
 import ru.practicum.shareit.user.model.User;
-import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 
 import java.time.LocalDateTime;
 import java.util.List;
@@ -26,6 +26,7 @@ import java.util.Optional;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.ArgumentMatchers.anyLong;
 import static org.mockito.Mockito.*;
 
@@ -35,7 +36,7 @@ public class ItemRequestsServiceImplTests {
     @InjectMocks
     private ItemRequestServiceImpl itemRequestService;
     @Mock
-    private UserRepository userRepository;
+    private UserResolver userResolver;
     @Mock
     private ItemRepository itemRepository;
     @Mock
@@ -49,12 +50,25 @@ public class ItemRequestsServiceImplTests {
             .id(2L)
             .name("BookerName")
             .email("booker@mail.ru").build();
+    private final ItemRequest itemRequest = ItemRequest.builder()
+            .id(2L)
+            .description("itemRequestDescription")
+            .requestor(requester)
+            .created(LocalDateTime.now())
+            .build();
+    private final ItemRequest anotherItemRequest = ItemRequest.builder()
+            .id(3L)
+            .description("anotherItemRequestDescription")
+            .requestor(owner)
+            .created(LocalDateTime.now())
+            .build();
     private final Item item = Item.builder()
             .id(1L)
             .name("ItemName")
             .description("ItemDesc")
             .owner(owner)
             .available(true)
+            .itemRequest(itemRequest)
             .build();
     private final Item anotherItem = Item.builder()
             .id(2L)
@@ -62,23 +76,12 @@ public class ItemRequestsServiceImplTests {
             .description("ItemDesc2")
             .owner(owner)
             .available(true)
-            .build();
-    private final ItemRequest itemRequest = ItemRequest.builder()
-            .id(2L)
-            .description("itemRequestDescription")
-            .requestor(requester)
-            .created(LocalDateTime.now())
-            .build();
-    private final ItemRequest anotherItemRequest = ItemRequest.builder()
-            .id(3L)
-            .description("anotherItemRequestDescription")
-            .requestor(owner)
-            .created(LocalDateTime.now())
+            .itemRequest(anotherItemRequest)
             .build();
 
     @Test
     void createRequest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(userResolver.getUser(anyLong())).thenReturn(requester);
         when(itemRequestRepository.save(any())).thenReturn(itemRequest);
 
         ItemRequestDto createdItemRequest = itemRequestService.createRequest(requester.getId(),
@@ -92,7 +95,8 @@ public class ItemRequestsServiceImplTests {
 
     @Test
     void createRequestWhenUnknownRequesterShouldThrowException() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userResolver.getUser(anyLong()))
+                .thenThrow(new ObjectNotFoundException("Пользователь c id=2 не найден."));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> itemRequestService.createRequest(requester.getId(),
@@ -102,20 +106,23 @@ public class ItemRequestsServiceImplTests {
 
     @Test
     void findRequestById() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(userResolver.getUser(anyLong())).thenReturn(requester);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.ofNullable(itemRequest));
-        when(itemRepository.findItemByItemRequestId(anyLong())).thenReturn(List.of(item, anotherItem));
+        when(itemRepository.findAllByItemRequestIdIn(anyCollection())).thenReturn(List.of(item, anotherItem));
 
         ItemRequestOutputDto foundItemRequest = itemRequestService.findRequestById(1L, 1L);
         assertNotEquals(foundItemRequest, null);
         assertEquals(foundItemRequest.getDescription(), itemRequest.getDescription());
+        assertEquals(1, foundItemRequest.getItems().size());
+        assertEquals(item.getId(), foundItemRequest.getItems().get(0).getId());
 
         verify(itemRequestRepository, times(1)).findById(anyLong());
     }
 
     @Test
     void findRequestByIdWithUserUnknown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userResolver.getUser(anyLong()))
+                .thenThrow(new ObjectNotFoundException("Пользователь c id=1 не найден."));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> itemRequestService.findRequestById(1L, 1L));
@@ -124,7 +131,7 @@ public class ItemRequestsServiceImplTests {
 
     @Test
     void findRequestByIdWithRequestUnknown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
+        when(userResolver.getUser(anyLong())).thenReturn(requester);
         when(itemRequestRepository.findById(anyLong())).thenReturn(Optional.empty());
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
@@ -134,22 +141,40 @@ public class ItemRequestsServiceImplTests {
 
     @Test
     void findAllRequest() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.of(requester));
-        when(itemRequestRepository.findAll(PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"))))
-                .thenReturn(new PageImpl<ItemRequest>(List.of(itemRequest, anotherItemRequest)));
-        when(itemRepository.findItemByItemRequestId(anyLong())).thenReturn(List.of(item, anotherItem));
+        when(userResolver.getUser(anyLong())).thenReturn(requester);
+        when(itemRequestRepository.findAllByRequestorIdNot(2L, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id"))))
+                .thenReturn(new SliceImpl<>(List.of(anotherItemRequest)));
+        when(itemRepository.findAllByItemRequestIdIn(anyCollection())).thenReturn(List.of(item, anotherItem));
 
-        List<ItemRequestOutputDto> foundItemRequest = itemRequestService.findAllRequest(2L, 0, 10);
+        List<ItemRequestOutputDto> foundItemRequest = itemRequestService.findAllRequest(2L, 0, 10).getContent();
         assertNotEquals(foundItemRequest, null);
         assertEquals(1, foundItemRequest.size());
         assertEquals(anotherItemRequest.getDescription(), foundItemRequest.get(0).getDescription());
+        assertEquals(anotherItem.getId(), foundItemRequest.get(0).getItems().get(0).getId());
 
-        verify(itemRequestRepository, times(1)).findAll(PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id")));
+        verify(itemRequestRepository, times(1))
+                .findAllByRequestorIdNot(2L, PageRequest.of(0, 10, Sort.by(Sort.Direction.ASC, "id")));
+    }
+
+    @Test
+    void findAllRequestFromRequesterLoadsItemsOnce() {
+        when(userResolver.getUser(anyLong())).thenReturn(requester);
+        when(itemRequestRepository.findItemRequestsByRequestorId(2L))
+                .thenReturn(List.of(anotherItemRequest, itemRequest));
+        when(itemRepository.findAllByItemRequestIdIn(anyCollection())).thenReturn(List.of(item, anotherItem));
+
+        List<ItemRequestOutputDto> foundItemRequests = itemRequestService.findAllRequestFromRequester(2L);
+        assertEquals(2, foundItemRequests.size());
+        assertEquals(anotherItem.getId(), foundItemRequests.get(0).getItems().get(0).getId());
+        assertEquals(item.getId(), foundItemRequests.get(1).getItems().get(0).getId());
+
+        verify(itemRepository, times(1)).findAllByItemRequestIdIn(anyCollection());
     }
 
     @Test
     void findAllRequestWithUserUnknown() {
-        when(userRepository.findById(anyLong())).thenReturn(Optional.empty());
+        when(userResolver.getUser(anyLong()))
+                .thenThrow(new ObjectNotFoundException("Пользователь c id=1 не найден."));
 
         ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
                 () -> itemRequestService.findRequestById(1L, 1L));
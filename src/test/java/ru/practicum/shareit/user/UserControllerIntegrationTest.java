@@ -5,6 +5,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.transaction.annotation.Transactional;
+import ru.practicum.shareit.exceptions.ValidationException;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.service.UserService;
@@ -18,6 +19,7 @@ import static org.hamcrest.CoreMatchers.equalTo;
 import static org.hamcrest.CoreMatchers.notNullValue;
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.*;
+import static org.junit.jupiter.api.Assertions.assertThrows;
 
 @Transactional
 @SpringBootTest(
@@ -52,6 +54,16 @@ public class UserControllerIntegrationTest {
         assertThat(user.getEmail(), equalTo(userDto.getEmail()));
     }
 
+    @Test
+    void createUserWithSameEmailInOtherCaseShouldThrowException() {
+        userService.createUser(userDto);
+
+        assertThrows(ValidationException.class, () -> userService.createUser(UserDto.builder()
+                .name("UserName2")
+                .email("USER@mail.ru")
+                .build()));
+    }
+
     @Test
     void getUserById() {
         UserDto createdUser = userService.createUser(userDto);
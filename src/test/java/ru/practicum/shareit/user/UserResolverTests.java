@@ -0,0 +1,119 @@
+package ru.practicum.shareit.user;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.user.model.User;
+import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
+
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class UserResolverTests {
+    @Mock
+    private UserRepository userRepository;
+
+    private final User user = User.builder()
+            .id(1L)
+            .name("UserName")
+            .email("user@mail.ru")
+            .build();
+    private final User user2 = User.builder()
+            .id(2L)
+            .name("UserName2")
+            .email("user2@mail.ru")
+            .build();
+
+    @Test
+    void getUserLoadsOnceAndCountsHits() {
+        UserResolver userResolver = new UserResolver(userRepository, 10, 300);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        assertEquals(user, userResolver.getUser(1L));
+        assertEquals(user, userResolver.getUser(1L));
+        assertEquals(user, userResolver.getUser(1L));
+
+        verify(userRepository, times(1)).findById(1L);
+        assertEquals(1, userResolver.getSize());
+        assertEquals(2, userResolver.getHits());
+        assertEquals(1, userResolver.getMisses());
+    }
+
+    @Test
+    void getUnknownUserShouldThrowException() {
+        UserResolver userResolver = new UserResolver(userRepository, 10, 300);
+        when(userRepository.findById(11L)).thenReturn(Optional.empty());
+
+        ObjectNotFoundException exception = assertThrows(ObjectNotFoundException.class,
+                () -> userResolver.getUser(11L));
+        assertEquals("Пользователь c id=11 не найден.", exception.getMessage());
+        assertEquals(0, userResolver.getSize());
+        assertEquals(1, userResolver.getMisses());
+    }
+
+    @Test
+    void evictReloadsUser() {
+        UserResolver userResolver = new UserResolver(userRepository, 10, 300);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userResolver.getUser(1L);
+        userResolver.evict(1L);
+        userResolver.getUser(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+        assertEquals(2, userResolver.getMisses());
+    }
+
+    @Test
+    void expiredUserIsReloaded() {
+        UserResolver userResolver = new UserResolver(userRepository, 10, 0);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        userResolver.getUser(1L);
+        userResolver.getUser(1L);
+
+        verify(userRepository, times(2)).findById(1L);
+        assertEquals(0, userResolver.getHits());
+    }
+
+    @Test
+    void leastRecentlyUsedUserIsEvictedWhenFull() {
+        UserResolver userResolver = new UserResolver(userRepository, 1, 300);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        when(userRepository.findById(2L)).thenReturn(Optional.of(user2));
+
+        userResolver.getUser(1L);
+        userResolver.getUser(2L);
+        userResolver.getUser(1L);
+
+        assertEquals(1, userResolver.getSize());
+        verify(userRepository, times(2)).findById(1L);
+        assertEquals(3, userResolver.getMisses());
+    }
+
+    @Test
+    void userLoadedBeforeEvictIsNotCached() {
+        UserResolver userResolver = new UserResolver(userRepository, 10, 300);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            userResolver.getUser(1L);
+            userResolver.evict(1L);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        assertEquals(0, userResolver.getSize());
+        assertEquals(1, userResolver.getMisses());
+    }
+}
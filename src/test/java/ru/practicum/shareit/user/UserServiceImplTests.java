@@ -1,18 +1,28 @@
 package ru.practicum.shareit.user;
 
+import org.hibernate.exception.ConstraintViolationException;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.dao.DataIntegrityViolationException;
+import ru.practicum.shareit.booking.service.BookingIntervalIndex;
 import ru.practicum.shareit.exceptions.BadRequestException;
 import ru.practicum.shareit.exceptions.ObjectNotFoundException;
+import ru.practicum.shareit.exceptions.ValidationException;
+import ru.practicum.shareit.item.repository.ItemRepository;
+import ru.practicum.shareit.item.service.ItemBookingPointers;
+import ru.practicum.shareit.item.service.ItemDetailCache;
+import ru.practicum.shareit.item.service.ItemSearchIndex;
 import ru.practicum.shareit.user.dto.UserDto;
 import ru.practicum.shareit.user.dto.UserMapper;
 import ru.practicum.shareit.user.model.User;
 import ru.practicum.shareit.user.repository.UserRepository;
+import ru.practicum.shareit.user.service.UserResolver;
 import ru.practicum.shareit.user.service.UserServiceImpl;
 
+import java.sql.SQLException;
 import java.util.List;
 import java.util.Optional;
 
@@ -26,6 +36,18 @@ class UserServiceImplTests {
     private UserServiceImpl userService;
     @Mock
     private UserRepository userRepository;
+    @Mock
+    private UserResolver userResolver;
+    @Mock
+    private ItemRepository itemRepository;
+    @Mock
+    private ItemSearchIndex itemSearchIndex;
+    @Mock
+    private BookingIntervalIndex bookingIntervalIndex;
+    @Mock
+    private ItemDetailCache itemDetailCache;
+    @Mock
+    private ItemBookingPointers itemBookingPointers;
 
     private final User user = User.builder()
             .id(1L)
@@ -61,12 +83,12 @@ class UserServiceImplTests {
 
     @Test
     void testCreateUser() {
-        when(userRepository.save(any())).thenReturn(user);
+        when(userRepository.saveAndFlush(any())).thenReturn(user);
 
         UserDto result = userService.createUser(userDto);
         assertEquals(result, userDto);
 
-        verify(userRepository, times(1)).save(any());
+        verify(userRepository, times(1)).saveAndFlush(any());
     }
 
     @Test
@@ -77,9 +99,42 @@ class UserServiceImplTests {
         assertEquals("Не указана почта пользователя.", exception.getMessage());
     }
 
+    @Test
+    void testCreateUserWithTakenEmailShouldThrowException() {
+        when(userRepository.existsByEmailNormalized("user@mail.ru")).thenReturn(true);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> userService.createUser(UserDto.builder()
+                        .name("UserName")
+                        .email(" User@Mail.ru").build()));
+        assertEquals("Пользователь с почтой  User@Mail.ru уже добавлен.", exception.getMessage());
+
+        verify(userRepository, never()).saveAndFlush(any());
+    }
+
+    @Test
+    void testCreateUserConcurrentlyWithSameEmailShouldThrowException() {
+        when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new ConstraintViolationException("could not execute statement",
+                new SQLException("duplicate key"), "PUBLIC.UQ_USER_EMAIL_NORMALIZED_INDEX_4")));
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> userService.createUser(userDto));
+        assertEquals("Пользователь с почтой user@mail.ru уже добавлен.", exception.getMessage());
+    }
+
+    @Test
+    void testCreateUserViolatingOtherConstraintShouldRethrow() {
+        when(userRepository.saveAndFlush(any())).thenThrow(new DataIntegrityViolationException(
+                "could not execute statement", new ConstraintViolationException("could not execute statement",
+                new SQLException("UQ_USER_EMAIL"), "pk_users")));
+
+        assertThrows(DataIntegrityViolationException.class, () -> userService.createUser(userDto));
+    }
+
     @Test
     void updateUserName() {
-        when(userRepository.save(any())).thenReturn(User.builder()
+        when(userRepository.saveAndFlush(any())).thenReturn(User.builder()
                 .id(1L)
                 .name("UserNameUpdate")
                 .email("user@mail.ru")
@@ -91,12 +146,12 @@ class UserServiceImplTests {
         assertEquals(result.getName(), "UserNameUpdate");
         assertEquals(result.getEmail(), "user@mail.ru");
 
-        verify(userRepository, times(1)).save(any());
+        verify(userRepository, times(1)).saveAndFlush(any());
     }
 
     @Test
     void updateUserEmail() {
-        when(userRepository.save(any())).thenReturn(User.builder()
+        when(userRepository.saveAndFlush(any())).thenReturn(User.builder()
                 .id(1L)
                 .name("UserName")
                 .email("userUpdate@mail.ru")
@@ -108,7 +163,21 @@ class UserServiceImplTests {
         assertEquals(result.getName(), "UserName");
         assertEquals(result.getEmail(), "userUpdate@mail.ru");
 
-        verify(userRepository, times(1)).save(any());
+        verify(userRepository, times(1)).saveAndFlush(any());
+    }
+
+    @Test
+    void updateUserWithTakenEmailShouldThrowException() {
+        when(userRepository.findById(anyLong())).thenReturn(Optional.of(user));
+        when(userRepository.existsByEmailNormalizedAndIdNot("user2@mail.ru", 1L)).thenReturn(true);
+
+        ValidationException exception = assertThrows(ValidationException.class,
+                () -> userService.updateUser(1L, UserDto.builder()
+                        .email("USER2@mail.ru").build()));
+        assertEquals("Пользователь с почтой USER2@mail.ru уже добавлен.", exception.getMessage());
+
+        verify(userRepository, never()).saveAndFlush(any());
+        verify(userRepository, never()).findAll();
     }
 
     @Test
@@ -147,7 +216,16 @@ class UserServiceImplTests {
 
     @Test
     void deleteUser() {
+        when(itemRepository.findIdsByOwnerIdOrRequestorId(1L)).thenReturn(List.of(3L, 4L));
+        when(itemRepository.findIdsPointingToBookingsOf(1L)).thenReturn(List.of(5L));
+
         userService.deleteUser(1L);
         verify(userRepository, times(1)).deleteById(anyLong());
+        verify(userResolver, times(1)).evict(1L);
+        verify(itemSearchIndex, times(1)).remove(3L);
+        verify(itemSearchIndex, times(1)).remove(4L);
+        verify(bookingIntervalIndex, times(1)).removeUser(1L, List.of(3L, 4L));
+        verify(itemDetailCache, times(1)).clear();
+        verify(itemBookingPointers, times(1)).recompute(List.of(5L));
     }
 }
\ No newline at end of file